@@ -0,0 +1,185 @@
+package client;
+
+import hashing.RingSnapshot;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// klient za rutiranje na klucevi bez http povik po key: go povlekuva snapshot-ot na ringot od /cluster/ring,
+// gi resava klucevite lokalno (so LRU near-cache) i osvezuva samo koga ringot ke se promeni (long-poll)
+public class RingRoutingClient implements AutoCloseable {
+
+    // kolku dolgo serverot ja drzi long-poll konekcijata pred da vrati 304
+    private static final long LONG_POLL_MS = 30_000;
+    // pauza pred povtoren obid ako serverot ne e dostapen
+    private static final long RETRY_DELAY_MS = 1_000;
+    // near-cache-ot e podelen na tolku nezavisni LRU delovi so sopstven lock,
+    // za povikuvacite od razlicni nitki da ne cekaat na eden zaednicki lock
+    private static final int CACHE_STRIPES = 16;
+
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // key -> (snapshot, owner, api owner); vo sekoj del pri pogolem broj zapisi se frla najdavno koristeniot
+    private final List<Map<String, CachedRoute>> nearCache;
+
+    private volatile RingSnapshot snapshot;
+    private volatile boolean running;
+    private Thread refreshThread;
+
+    // baseUrl e adresata na dashboard/rest api-to, npr. http://127.0.0.1:8080
+    public RingRoutingClient(String baseUrl, int nearCacheSize) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        int stripeSize = Math.max(1, nearCacheSize / CACHE_STRIPES);
+        this.nearCache = new ArrayList<>(CACHE_STRIPES);
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            nearCache.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedRoute> eldest) {
+                    return size() > stripeSize;
+                }
+            });
+        }
+    }
+
+    // go zema prviot snapshot (blokira) i startuva pozadinsko osvezuvanje
+    public synchronized void start() throws IOException, InterruptedException {
+        if (running) {
+            return;
+        }
+        RingSnapshot initial = fetch(null, 0);
+        if (initial == null) {
+            throw new IOException("Ring snapshot not available from " + baseUrl);
+        }
+        snapshot = initial;
+
+        running = true;
+        refreshThread = new Thread(this::refreshLoop, "ring-routing-refresh");
+        refreshThread.setDaemon(true);
+        refreshThread.start();
+    }
+
+    // jazelot odgovoren za key spored posledniot poznat snapshot na ringot
+    public String ownerOf(String key) {
+        return route(key).owner;
+    }
+
+    // jazelot so http api sto go cuva key-ot (kako /metrics na serverot): prviot od sopstvenikot natamu
+    // po prstenot sto objavil adresa; null ako nitu eden jazel nema api
+    public String apiOwnerOf(String key) {
+        return route(key).apiOwner;
+    }
+
+    // http adresa kade treba da se prati baranje za key, spored istoto pravilo kako serverot
+    public String apiAddressOf(String key) {
+        CachedRoute route = route(key);
+        return route.apiOwner == null ? null : route.snapshot.getApiAddress(route.apiOwner);
+    }
+
+    private CachedRoute route(String key) {
+        RingSnapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Client not started");
+        }
+
+        Map<String, CachedRoute> stripe = nearCache.get(Math.floorMod(key.hashCode(), CACHE_STRIPES));
+        synchronized (stripe) {
+            CachedRoute cached = stripe.get(key);
+            if (cached != null && cached.snapshot == current) {
+                return cached;
+            }
+        }
+
+        CachedRoute route = new CachedRoute(current, current.getNode(key), current.getApiNode(key));
+        synchronized (stripe) {
+            stripe.put(key, route);
+        }
+        return route;
+    }
+
+    // epoha na snapshot-ot sto klientot momentalno go koristi
+    public long getEpoch() {
+        RingSnapshot current = snapshot;
+        return current == null ? 0 : current.getEpoch();
+    }
+
+    // long-poll: ceka promena na ringot i go zamenuva snapshot-ot; stari zapisi vo kesot se ignoriraat.
+    // se prifakja sekoj snapshot so razlicna (inkarnacija, epoha): po restart na serverot epohata moze da e pomala
+    private void refreshLoop() {
+        while (running) {
+            try {
+                RingSnapshot next = fetch(snapshot, LONG_POLL_MS);
+                if (next != null && !next.sameVersion(snapshot)) {
+                    snapshot = next;
+                    for (Map<String, CachedRoute> stripe : nearCache) {
+                        synchronized (stripe) {
+                            stripe.clear();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("[RingRoutingClient] Refresh failed: " + e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // vrakja nov snapshot ili null ako nema promena od since (304); since == null go bara tekovniot
+    private RingSnapshot fetch(RingSnapshot since, long waitMs) throws IOException, InterruptedException {
+        long sinceIncarnation = since == null ? 0 : since.getIncarnation();
+        long sinceEpoch = since == null ? 0 : since.getEpoch();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/cluster/ring?sinceIncarnation=" + sinceIncarnation
+                        + "&sinceEpoch=" + sinceEpoch + "&waitMs=" + waitMs))
+                .timeout(Duration.ofMillis(waitMs + 10_000))
+                .GET()
+                .build();
+
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 304) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected status " + response.statusCode() + " from " + baseUrl);
+        }
+        return RingSnapshot.decode(response.body());
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (refreshThread != null) {
+            refreshThread.interrupt();
+        }
+    }
+
+    // rezultat od rutiranje za key, vazi samo za snapshot-ot od koj e presmetan
+    private static final class CachedRoute {
+        private final RingSnapshot snapshot;
+        private final String owner;
+        private final String apiOwner;
+
+        private CachedRoute(RingSnapshot snapshot, String owner, String apiOwner) {
+            this.snapshot = snapshot;
+            this.owner = owner;
+            this.apiOwner = apiOwner;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dashboard;
 
 import gossip.GossipManager;
+import metrics.TimeSeriesStore;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -30,6 +31,17 @@ public class ClusterApplication {
         // dashboard nodeot ne se povrzuva na nikoj seed, drugite nodes go koristat nego kako seed
         String[] seedNodes = {};
 
-        return new GossipManager(host, GOSSIP_PORT, seedNodes);
+        GossipManager manager = new GossipManager(host, GOSSIP_PORT, seedNodes);
+        // drugite jazli preku ovaa adresa ni gi prepratuvaat metrikite za koi sme odgovorni
+        manager.setApiAddress(host + ":" + WEB_PORT);
+        // zona/rack se zadavaat so -Dgossip.zone=... -Dgossip.rack=...
+        manager.setTopology(System.getProperty("gossip.zone"), System.getProperty("gossip.rack"));
+        return manager;
+    }
+
+    // lokalen time-series store za klucevite sto ovoj jazel gi poseduva na hash ringot
+    @Bean
+    public TimeSeriesStore timeSeriesStore() {
+        return new TimeSeriesStore();
     }
 }
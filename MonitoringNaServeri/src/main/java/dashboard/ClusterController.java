@@ -1,9 +1,16 @@
 package dashboard;
 
 import gossip.GossipManager;
+import gossip.MembershipEvent;
+import gossip.MetricAggregate;
 import gossip.NodeInfo;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.util.List;
 import java.util.Map;
 
 // rest kontroler sto nudi http api za pregled i kontrola na clusterot
@@ -32,6 +39,52 @@ public class ClusterController {
         return "Hash Ring rebuilt successfully using ALIVE nodes.";
     }
 
+    // get /cluster/aggregates -> kluster-vo prosek/suma/min/max za cpu i memory, bez fan-out kon sekoj jazel
+    @GetMapping("/aggregates")
+    public Map<String, MetricAggregate> getLoadAggregates() {
+        return gossipManager.getLoadAggregates();
+    }
+
+    // get /cluster/events?since= -> poslednite membership nastani so sekvenca pogolema od since
+    @GetMapping("/events")
+    public List<MembershipEvent> getEvents(@RequestParam(defaultValue = "0") long since) {
+        return gossipManager.getEventsSince(since);
+    }
+
+    // get /cluster/traffic -> isprateni gossip bajti vo istata zona nasproti megju zoni
+    @GetMapping("/traffic")
+    public Map<String, Long> getTrafficStats() {
+        return gossipManager.getTrafficStats();
+    }
+
+    // get /cluster/ring?sinceIncarnation=&sinceEpoch=&waitMs= -> binaren snapshot od ringot ako e od druga
+    // inkarnacija (restart) ili epohata e pogolema od sinceEpoch; inaku ceka (long-poll) do waitMs, pa vrakja 304.
+    // X-Ring-Epoch e "inkarnacija:epoha"
+    @GetMapping(value = "/ring", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> getRingSnapshot(@RequestParam(defaultValue = "0") long sinceIncarnation,
+                                                                  @RequestParam(defaultValue = "0") long sinceEpoch,
+                                                                  @RequestParam(defaultValue = "0") long waitMs) {
+        long timeout = Math.max(1, Math.min(waitMs, 60_000));
+        ResponseEntity<byte[]> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header("X-Ring-Epoch", ringVersion(gossipManager.getRingEpoch()))
+                .build();
+        DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>(timeout, notModified);
+
+        Runnable cancel = gossipManager.onRingChange(sinceIncarnation, sinceEpoch, epoch -> {
+            byte[] snapshot = gossipManager.getRingSnapshot();
+            result.setResult(ResponseEntity.ok()
+                    .header("X-Ring-Epoch", ringVersion(epoch))
+                    .body(snapshot));
+        });
+        // se povikuva i pri timeout (304) i pri prekinata konekcija: listener-ot ne smee da ostane registriran
+        result.onCompletion(cancel);
+        return result;
+    }
+
+    private String ringVersion(long epoch) {
+        return gossipManager.getRingIncarnation() + ":" + epoch;
+    }
+
     // get /cluster/me -> informativen endpoint koj kazuva koj e lokalniot node (host:port)
     @GetMapping("/me")
     public String getLocalNodeId() {
@@ -0,0 +1,138 @@
+package dashboard;
+
+import gossip.GossipManager;
+import metrics.Sample;
+import metrics.TimeSeriesStore;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// rest kontroler za ingest i citanje na metriki; sekoj key se cuva kaj jazelot sto e odgovoren spored hash ringot
+// (megju jazlite so http api, bidejki samo tie imaat store)
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    // timeouts za prepratuvanje, za nedostapen sopstvenik da ne gi blokira servlet nitkite
+    private static final int FORWARD_CONNECT_TIMEOUT_MS = 2000;
+    private static final int FORWARD_READ_TIMEOUT_MS = 5000;
+
+    private final GossipManager gossipManager;
+    private final TimeSeriesStore store;
+    // http klient za prepratuvanje na baranja kon jazelot sto go poseduva key-ot
+    private final RestTemplate restTemplate;
+
+    public MetricsController(GossipManager gossipManager, TimeSeriesStore store) {
+        this.gossipManager = gossipManager;
+        this.store = store;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(FORWARD_CONNECT_TIMEOUT_MS);
+        requestFactory.setReadTimeout(FORWARD_READ_TIMEOUT_MS);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    // post /metrics/{key}?value=&timestamp= -> zapisuva sample lokalno ili go prepratuva na sopstvenikot
+    @PostMapping("/{key}")
+    public String ingest(@PathVariable String key,
+                         @RequestParam double value,
+                         @RequestParam(required = false) Long timestamp,
+                         @RequestParam(defaultValue = "false") boolean forwarded) {
+        long ts = timestamp != null ? timestamp : System.currentTimeMillis();
+
+        String owner = gossipManager.findResponsibleApiNode(key);
+        if (isLocal(owner)) {
+            if (!store.ingest(key, ts, value)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Series limit (" + store.getMaxSeries() + ") reached on node " + gossipManager.getLocalNodeId());
+            }
+            return String.format("Stored sample for key '%s' on node: %s", key, gossipManager.getLocalNodeId());
+        }
+        rejectMisrouted(forwarded, owner, key);
+
+        URI url = ownerUri(owner, key)
+                .queryParam("value", value)
+                .queryParam("timestamp", ts)
+                .queryParam("forwarded", true)
+                .build().encode().toUri();
+        try {
+            return restTemplate.postForObject(url, null, String.class);
+        } catch (RestClientException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Owner " + owner + " unreachable", e);
+        }
+    }
+
+    // get /metrics/{key}?from=&to= -> sample-i vo opsegot, citani od jazelot sto go poseduva key-ot
+    @GetMapping("/{key}")
+    public List<Sample> query(@PathVariable String key,
+                              @RequestParam(defaultValue = "0") long from,
+                              @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+                              @RequestParam(defaultValue = "false") boolean forwarded) {
+        String owner = gossipManager.findResponsibleApiNode(key);
+        if (isLocal(owner)) {
+            return store.query(key, from, to);
+        }
+        rejectMisrouted(forwarded, owner, key);
+
+        URI url = ownerUri(owner, key)
+                .queryParam("from", from)
+                .queryParam("to", to)
+                .queryParam("forwarded", true)
+                .build().encode().toUri();
+        try {
+            return restTemplate.exchange(url, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Sample>>() {}).getBody();
+        } catch (RestClientException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Owner " + owner + " unreachable", e);
+        }
+    }
+
+    // get /metrics/stats -> statistika za lokalniot store
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("node", gossipManager.getLocalNodeId());
+        stats.put("series", store.keys().size());
+        stats.put("maxSeries", store.getMaxSeries());
+        stats.put("ingested", store.getIngestedCount());
+        stats.put("rejected", store.getRejectedCount());
+        stats.put("retained", store.getRetainedCount());
+        stats.put("offHeapBytes", store.getAllocatedBytes());
+        return stats;
+    }
+
+    private boolean isLocal(String owner) {
+        return owner == null || owner.equals(gossipManager.getLocalNodeId());
+    }
+
+    // prepratenoto baranje se prifakja samo kaj sopstvenikot: nadvoresen forwarded=true ne smee da go zaobikoli
+    // ringot, a pri neusoglaseni pogledi na ringot podobro e greska otkolku sample zapisan na pogresen jazel
+    private void rejectMisrouted(boolean forwarded, String owner, String key) {
+        if (forwarded) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Node " + gossipManager.getLocalNodeId() + " does not own key '" + key + "' (owner: " + owner + ")");
+        }
+    }
+
+    // uri na istiot endpoint kaj sopstvenikot; key-ot odi kako enkodiran path segment, ne se lepi vo url-ot.
+    // adresata moze da isceznala megju izborot i povikot
+    private UriComponentsBuilder ownerUri(String owner, String key) {
+        String apiAddress = gossipManager.getApiAddress(owner);
+        if (apiAddress == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Owner " + owner + " of key '" + key + "' has no HTTP API");
+        }
+        return UriComponentsBuilder.fromHttpUrl("http://" + apiAddress).pathSegment("metrics", key);
+    }
+}
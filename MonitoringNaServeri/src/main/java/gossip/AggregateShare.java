@@ -0,0 +1,52 @@
+package gossip;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Дел од push-sum состојбата што се закачува на GOSSIP_PUSH.
+ * Сите метрики делат иста тежина (weight), бидејќи секогаш се делат наполовина заедно.
+ */
+public class AggregateShare {
+
+    private final long epoch;                 // епоха (прозорец) на која припаѓа масата
+    private final double weight;              // push-sum тежина
+    private final Map<String, Double> sums;   // метрика -> push-sum вредност
+    private final Map<String, Double> mins;   // метрика -> најмала видена вредност
+    private final Map<String, Double> maxs;   // метрика -> најголема видена вредност
+
+    @JsonCreator
+    public AggregateShare(@JsonProperty("epoch") long epoch,
+                          @JsonProperty("weight") double weight,
+                          @JsonProperty("sums") Map<String, Double> sums,
+                          @JsonProperty("mins") Map<String, Double> mins,
+                          @JsonProperty("maxs") Map<String, Double> maxs) {
+        this.epoch = epoch;
+        this.weight = weight;
+        this.sums = sums;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public Map<String, Double> getSums() {
+        return sums;
+    }
+
+    public Map<String, Double> getMins() {
+        return mins;
+    }
+
+    public Map<String, Double> getMaxs() {
+        return maxs;
+    }
+}
@@ -0,0 +1,146 @@
+package gossip;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// ograniceno lock-free ring bafer zurnal na membership nastani
+// record() nikogas ne blokira i ne pravi i/o: samo zema sekvenca i zapisuva vo slot;
+// pozadinski drain gi prakja nastanite na EventSink so sampling i rate limit
+public class EventJournal {
+
+    // kolku cesto drain-ot gi prazni novite nastani
+    private static final long DRAIN_INTERVAL_MS = 200;
+
+    private final AtomicReferenceArray<MembershipEvent> slots;
+    private final int mask;
+    // sledna sekvenca (prviot nastan ima sekvenca 1)
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    private volatile EventSink sink;
+    // se prakja sekoj sampleEvery-ti nastan (1 = site)
+    private volatile int sampleEvery;
+    // maksimum nastani na sink-ot vo edna sekunda
+    private volatile int maxPerSecond;
+
+    // sostojba na drain-ot, ja menuva samo drain nitkata
+    private long drainedUpTo;
+    private long windowStart;
+    private int windowCount;
+    private long suppressed;
+
+    // capacity se zaokruzuva na sledna stepen na 2
+    public EventJournal(int capacity, EventSink sink, int sampleEvery, int maxPerSecond) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.sink = sink;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    // zapisuva nastan; pri poln bafer go prepisuva najstariot
+    public void record(String reporterId, String type, String subjectId, NodeState state, String detail) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), new MembershipEvent(sequence, System.currentTimeMillis(),
+                reporterId, type, subjectId, state, detail));
+    }
+
+    // nastani so sekvenca pogolema od since sto se uste se vo baferot, od najstar kon najnov
+    public List<MembershipEvent> since(long since) {
+        long latest = nextSequence.get() - 1;
+        long from = Math.max(since + 1, latest - mask);
+
+        List<MembershipEvent> result = new ArrayList<>();
+        for (long seq = Math.max(1, from); seq <= latest; seq++) {
+            MembershipEvent event = slots.get((int) (seq & mask));
+            // slotot moze vekje da e prepisan ili sé uste ne e zapisan
+            if (event != null && event.getSequence() == seq) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    // zapocnuva periodicen drain na daden scheduler
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler) {
+        return scheduler.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // gi prakja novite nastani na sink-ot po redosled na sekvenca; se povikuva samo od edna nitka.
+    // record() ja zema sekvencata pred da go zapise slotot, pa drain-ot zastanuva na prvata zemena,
+    // a se uste nezapisana sekvenca i ja preskoknuva samo ako slotot vekje e prepisan od ponov nastan
+    public synchronized void drain() {
+        EventSink target = sink;
+        if (target == null) {
+            return;
+        }
+
+        long latest = nextSequence.get() - 1;
+        // sekvencite pod latest - mask vekje gi zele ponovi zapisi vo istite slotovi, izgubeni se
+        long oldest = latest - mask;
+        if (drainedUpTo + 1 < oldest) {
+            suppressed += oldest - drainedUpTo - 1;
+            drainedUpTo = oldest - 1;
+        }
+        while (drainedUpTo < latest) {
+            long seq = drainedUpTo + 1;
+            MembershipEvent event = slots.get((int) (seq & mask));
+            if (event == null || event.getSequence() < seq) {
+                // zapisot se uste ne e zavrsen, prodolzuvame vo sledniot drain
+                break;
+            }
+            drainedUpTo = seq;
+            if (event.getSequence() > seq) {
+                // baferot napravil cel krug pred da stigneme do ovoj nastan
+                suppressed++;
+                continue;
+            }
+            if (seq % sampleEvery != 0) {
+                continue;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= 1000) {
+                if (suppressed > 0) {
+                    target.suppressed(suppressed);
+                    suppressed = 0;
+                }
+                windowStart = now;
+                windowCount = 0;
+            }
+            if (windowCount >= maxPerSecond) {
+                suppressed++;
+                continue;
+            }
+
+            windowCount++;
+            try {
+                target.accept(event);
+            } catch (Exception e) {
+                System.err.println("[EventJournal] Sink error: " + e.getMessage());
+            }
+        }
+    }
+
+    public void setSink(EventSink sink) {
+        this.sink = sink;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    // sekvenca na posledniot zapisan nastan
+    public long latestSequence() {
+        return nextSequence.get() - 1;
+    }
+}
@@ -0,0 +1,26 @@
+package gossip;
+
+// destinacija na koja EventJournal gi prazni nastanite (stdout, log pipeline, ...)
+public interface EventSink {
+
+    void accept(MembershipEvent event);
+
+    // povikano koga rate limit-ot ke isfrli nastani vo posledniot interval
+    default void suppressed(long count) {
+    }
+
+    // default sink: pecati na stdout, kako porano, no od drain nitkata a ne od receive patekata
+    static EventSink stdout() {
+        return new EventSink() {
+            @Override
+            public void accept(MembershipEvent event) {
+                System.out.println(event);
+            }
+
+            @Override
+            public void suppressed(long count) {
+                System.out.println("[EventJournal] " + count + " events suppressed by rate limit");
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package gossip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// tcp kanal za full-state push/pull sync na istiot port kako udp gossip-ot
+// sekoja strana prakja po eden frame: 4 bajti dolzina + gzip json od GossipMessage,
+// pa nema ogranicuvanje od 64KB kako kaj udp datagram
+public class FullStateSync {
+
+    // timeout za connect i citanje na tcp sync
+    private static final int TCP_TIMEOUT_MS = 10_000;
+    // ogranicuvanjata na frame se vrzani za ocekuvanata golemina na clenstvoto, za konekcija na gossip portot
+    // da ne moze da natera server da alocira/raspakuva proizvolno mnogu (json na eden NodeInfo e ~150 B,
+    // a kompresiran ~10-20 B)
+    private static final int MAX_MEMBERS = 100_000;
+    // najgolem frame sto go prifakjame (kompresiran)
+    private static final int MAX_FRAME_BYTES = MAX_MEMBERS * 64;
+    // najgolem json po raspakuvanje na eden frame
+    private static final long MAX_DECOMPRESSED_BYTES = MAX_MEMBERS * 256L;
+
+    private final ObjectMapper mapper;
+    // kompresirani bajti isprateni/primeni preku tcp
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    public FullStateSync(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    // klient: ja prakja nasata sostojba na targetId (host:port) i ja vrakja negovata;
+    // bajtite od dvata frame-a se dodavaat i vo traffic (brojac po zona kaj povikuvacot)
+    public GossipMessage exchange(String targetId, GossipMessage request, LongAdder traffic) throws IOException {
+        String[] parts = targetId.split(":");
+        if (parts.length != 2) {
+            throw new IOException("Invalid node id: " + targetId);
+        }
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(parts[0], Integer.parseInt(parts[1])), TCP_TIMEOUT_MS);
+            socket.setSoTimeout(TCP_TIMEOUT_MS);
+
+            writeFrame(new DataOutputStream(socket.getOutputStream()), request, traffic);
+            return readFrame(new DataInputStream(socket.getInputStream()), traffic);
+        }
+    }
+
+    // server: cita eden frame od prifatenata konekcija, handler-ot go vrakja odgovorot;
+    // vrakja kolku bajti (primeni + isprateni) pominale niz konekcijata
+    public long serve(SocketChannel channel, UnaryOperator<GossipMessage> handler) throws IOException {
+        LongAdder traffic = new LongAdder();
+        try (SocketChannel ch = channel) {
+            ch.configureBlocking(true);
+            Socket socket = ch.socket();
+            socket.setSoTimeout(TCP_TIMEOUT_MS);
+
+            GossipMessage request = readFrame(new DataInputStream(socket.getInputStream()), traffic);
+            GossipMessage response = handler.apply(request);
+            writeFrame(new DataOutputStream(socket.getOutputStream()), response, traffic);
+        }
+        return traffic.sum();
+    }
+
+    private void writeFrame(DataOutputStream out, GossipMessage message, LongAdder traffic) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // jackson go zatvora gzip stream-ot na kraj, so sto se zapisuva i trailer-ot
+        mapper.writeValue(new GZIPOutputStream(bytes), message);
+
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        out.flush();
+        bytesSent.add(Integer.BYTES + bytes.size());
+        traffic.add(Integer.BYTES + bytes.size());
+    }
+
+    private GossipMessage readFrame(DataInputStream in, LongAdder traffic) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid sync frame length: " + length);
+        }
+
+        // baferot raste so bajtite sto navistina pristignuvaat, ne se alocira odnapred po deklariranata dolzina
+        byte[] payload = in.readNBytes(length);
+        if (payload.length != length) {
+            throw new EOFException("Sync frame truncated: " + payload.length + " of " + length + " bytes");
+        }
+        bytesReceived.add(Integer.BYTES + length);
+        traffic.add(Integer.BYTES + length);
+        InputStream json = new LimitedInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)),
+                MAX_DECOMPRESSED_BYTES);
+        return mapper.readValue(json, GossipMessage.class);
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    // frla IOException koga od stream-ot ke se procitaat poveke od limit bajti (gzip bomba)
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Sync frame expands beyond " + limit + " bytes");
+            }
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package gossip;
 
 import hashing.ConsistentHashRing;
+import hashing.RingSnapshot;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 public class GossipManager {
@@ -17,27 +23,67 @@ public class GossipManager {
 
     // lokalna mapa: primer key -> node, ako sakame da cashirame raspredelbi
     private final ConcurrentMap<String, String> localAssignments = new ConcurrentHashMap<>();
-    // scheduler sto periodichno proveruva dali treba da se rebuilda hash ringot
-    private final ScheduledExecutorService rebalanceScheduler = Executors.newSingleThreadScheduledExecutor();
+    // timer, i/o loop i handler pool; mozat da se delat megju povekje manager-i vo ist process
+    private final GossipRuntime runtime;
+    // dali runtime-ot e kreiran od ovoj manager (togas i go gasime pri shutdown)
+    private final boolean ownsRuntime;
+    // periodichnata proverka dali treba da se rebuilda hash ringot
+    private final ScheduledFuture<?> rebalanceTask;
+    // zurnal na membership i ring nastani, so pozadinski drain kon EventSink
+    private final EventJournal journal;
+    private final ScheduledFuture<?> journalDrainTask;
 
     // lista od alive jazli sto bila koristena pri posledniot rebuild na ringot
     private volatile List<String> lastKnownAliveNodes;
+    // objaveni http adresi (nodeId -> host:port) pri posledniot rebuild; nivna promena e nova epoha,
+    // za snapshot-ot i klientite da ne ostanat so adresa null za jazel sto podocna ja objavil
+    private volatile Map<String, String> lastKnownApiAddresses = Map.of();
 
-    // konstruktor: startuva gossip servis i inicijalen hash ring
+    // inkarnacija na ovoj process (vreme na start): epohata po restart pak pocnuva od 1,
+    // pa klientite ja sporeduvaat parot (inkarnacija, epoha), ne samo epohata
+    private final long ringIncarnation = System.currentTimeMillis();
+    // epoha na ringot: se zgolemuva pri sekoj rebuild, klientite ja koristat za da znaat koga da osvezat
+    private final AtomicLong ringEpoch = new AtomicLong(1);
+    // listeneri sto cekaat sleden rebuild (long-poll na /cluster/ring); sekoj se brise koga ke zavrsi baranjeto,
+    // za istecenite long-poll-ovi da ne ostanat zakaceni do sledniot rebuild
+    private final Set<LongConsumer> ringWaiters = ConcurrentHashMap.newKeySet();
+    // enkodiran snapshot za poslednata epoha, za da ne se enkodira za sekoj klient
+    private volatile EncodedRing encodedSnapshot;
+
+    // konstruktor: samostoen jazel so sopstven runtime
     public GossipManager(String host, int port, String... seedNodes) throws IOException {
+        this(GossipRuntime.dedicated(), true, host, port, seedNodes);
+    }
+
+    // konstruktor za embedded mode: jazelot go koristi zaednickiot runtime, koj ne go gasi pri shutdown
+    public GossipManager(GossipRuntime runtime, String host, int port, String... seedNodes) throws IOException {
+        this(runtime, false, host, port, seedNodes);
+    }
+
+    // konstruktor: startuva gossip servis i inicijalen hash ring
+    private GossipManager(GossipRuntime runtime, boolean ownsRuntime,
+                          String host, int port, String... seedNodes) throws IOException {
+        this.runtime = runtime;
+        this.ownsRuntime = ownsRuntime;
+
+        // 4096 posledni nastani vo memorija, na sink-ot najmnogu 100 vo sekunda
+        this.journal = new EventJournal(4096, EventSink.stdout(), 1, 100);
+        this.journalDrainTask = journal.start(runtime.getTimer());
 
         // kreira lokalен swim node so zadadeni seed nodes
-        this.gossipService = new UDPGossipService(host, port, java.util.Arrays.asList(seedNodes));
+        this.gossipService = new UDPGossipService(runtime, journal, host, port, java.util.Arrays.asList(seedNodes));
 
         // inicijalen ring so site vo momentot poznati jazli od membership listata
         java.util.Collection<String> initialNodes = gossipService.getMembershipList().keySet();
         this.hashRing = new ConsistentHashRing<>(100, initialNodes);
+        this.lastKnownAliveNodes = new ArrayList<>(initialNodes);
 
         // startuvanje na gossip thread-ovite
         this.gossipService.start();
 
         // na sekoe 5 sekundi proveruvame dali se smenil setot na alive jazli i po potreba rebuild
-        rebalanceScheduler.scheduleAtFixedRate(this::checkAndRebuildHashRing, 5, 5, TimeUnit.SECONDS);
+        this.rebalanceTask = runtime.getTimer()
+                .scheduleAtFixedRate(this::checkAndRebuildHashRing, 5, 5, TimeUnit.SECONDS);
     }
 
     // proveruva dali ima promena vo alive jazlite i ako ima go rebuilda hash ringot
@@ -52,16 +98,35 @@ public class GossipManager {
         if (currentAliveNodeIds.size() != lastKnownAliveNodes.size() ||
                 !new HashSet<>(currentAliveNodeIds).equals(new HashSet<>(lastKnownAliveNodes))) {
 
-            System.out.println("-----> Cluster change detected! Rebuilding Hash Ring. <-----");
-
             // 3. ako ima promena, povika rebuild na ringot so novite alive jazli
-            hashRing.rebuild(currentAliveNodeIds);
+            rebuildRing(currentAliveNodeIds, "cluster change");
 
             // 4. zacuvaj ja novata lista kako lastKnownAliveNodes
             lastKnownAliveNodes = currentAliveNodeIds;
+            lastKnownApiAddresses = currentApiAddresses();
+        }
+        // 5. istite jazli, no nekoj objavil (ili smenil) http adresa -> nova epoha bez promena na ringot
+        else {
+            Map<String, String> apiAddresses = currentApiAddresses();
+            if (!apiAddresses.equals(lastKnownApiAddresses)) {
+                rebuildRing(currentAliveNodeIds, "api address change");
+                lastKnownApiAddresses = apiAddresses;
+            }
         }
     }
 
+    // http adresite sto jazlite gi objavile preku gossip
+    private Map<String, String> currentApiAddresses() {
+        Map<String, String> apiAddresses = new HashMap<>();
+        gossipService.getMembershipList().values().forEach(node -> {
+            String apiAddress = node.getApiAddress();
+            if (apiAddress != null) {
+                apiAddresses.put(node.getId(), apiAddress);
+            }
+        });
+        return apiAddresses;
+    }
+
     // rachen rebuild na hash ringot, povikan od /cluster/rebalance endpointot
     public void rebuildHashRing() {
         // 1. zemi ja celata membership mapa
@@ -74,9 +139,66 @@ public class GossipManager {
                 .collect(Collectors.toList());
 
         // 3. rekonstriraj go ringot samo so ovie alive node id-a
-        hashRing.rebuild(aliveNodeIds);
+        rebuildRing(aliveNodeIds, "manual");
+    }
+
+    // rebuild na ringot i nova epoha; se cekaat klientite sto long-poll-uvaat za promena
+    private void rebuildRing(List<String> aliveNodeIds, String reason) {
+        List<LongConsumer> waiters;
+        long epoch;
+        synchronized (this) {
+            hashRing.rebuild(aliveNodeIds);
+            epoch = ringEpoch.incrementAndGet();
+            waiters = new ArrayList<>(ringWaiters);
+            ringWaiters.clear();
+        }
+
+        journal.record(getLocalNodeId(), MembershipEvent.RING_REBUILT, null, null,
+                reason + ", " + aliveNodeIds.size() + " ALIVE nodes, epoch " + epoch);
+        for (LongConsumer waiter : waiters) {
+            waiter.accept(epoch);
+        }
+    }
+
+    // momentalna epoha na hash ringot
+    public long getRingEpoch() {
+        return ringEpoch.get();
+    }
+
+    public long getRingIncarnation() {
+        return ringIncarnation;
+    }
+
+    // go povikuva listener so novata epoha koga epohata ke stane pogolema od sinceEpoch (vednas ako vekje e,
+    // ili ako klientot ima snapshot od druga inkarnacija, t.e. od pred restart).
+    // vrakja akcija sto go otkazuva cekanjeto; mora da se povika ako baranjeto zavrsi bez promena
+    public Runnable onRingChange(long sinceIncarnation, long sinceEpoch, LongConsumer listener) {
+        long current;
+        synchronized (this) {
+            current = ringEpoch.get();
+            if (sinceIncarnation == ringIncarnation && current <= sinceEpoch) {
+                ringWaiters.add(listener);
+                return () -> ringWaiters.remove(listener);
+            }
+        }
+        listener.accept(current);
+        return () -> { };
+    }
 
-        System.out.println("Consistent Hash Ring rebuilt successfully with " + aliveNodeIds.size() + " ALIVE nodes.");
+    // kompakten binaren snapshot od ringot za tekovnata epoha
+    public byte[] getRingSnapshot() {
+        EncodedRing cached = encodedSnapshot;
+        if (cached != null && cached.epoch == ringEpoch.get()) {
+            return cached.bytes;
+        }
+
+        RingSnapshot snapshot;
+        synchronized (this) {
+            snapshot = RingSnapshot.of(hashRing, ringIncarnation, ringEpoch.get(), this::getApiAddress);
+        }
+        EncodedRing encoded = new EncodedRing(snapshot.getEpoch(), snapshot.encode());
+        encodedSnapshot = encoded;
+        return encoded.bytes;
     }
 
     // vrakja momentalna slika za clusterot: nodeId -> NodeInfo
@@ -84,18 +206,92 @@ public class GossipManager {
         return gossipService.getMembershipList();
     }
 
+    // kluster-vo load agregati (cpu, memory) procenati lokalno preku push-sum gossip
+    public Map<String, MetricAggregate> getLoadAggregates() {
+        return gossipService.getLoadAggregates();
+    }
+
+    // ja objavuva http adresata (host:port) na ovoj jazel za da mozat drugite da mu prepratat baranja
+    public void setApiAddress(String apiAddress) {
+        gossipService.setApiAddress(apiAddress);
+    }
+
+    // http adresa na daden jazel, ako ja objavil preku gossip
+    public String getApiAddress(String nodeId) {
+        NodeInfo info = gossipService.getMembershipList().get(nodeId);
+        return info == null ? null : info.getApiAddress();
+    }
+
+    // zona i rack na ovoj jazel za topology-aware izbor na peer
+    public void setTopology(String zone, String rack) {
+        gossipService.setTopology(zone, rack);
+    }
+
+    // del od gossip rundite sto odat vo druga zona (0..1)
+    public void setCrossZoneFraction(double fraction) {
+        gossipService.setCrossZoneFraction(fraction);
+    }
+
+    // isprateni gossip bajti vo istata zona i megju zoni
+    public Map<String, Long> getTrafficStats() {
+        return gossipService.getTrafficStats();
+    }
+
+    // nastani so sekvenca pogolema od since (za /cluster/events)
+    public List<MembershipEvent> getEventsSince(long since) {
+        return journal.since(since);
+    }
+
+    // zamena na destinacijata kade se praznat nastanite (npr. log pipeline namesto stdout)
+    public void setEventSink(EventSink sink) {
+        journal.setSink(sink);
+    }
+
+    // na sink-ot se prakja sekoj sampleEvery-ti nastan (1 = site)
+    public void setEventSampleEvery(int sampleEvery) {
+        journal.setSampleEvery(sampleEvery);
+    }
+
+    // najmnogu nastani na sink-ot vo sekunda; visokot se broi kako suppressed
+    public void setEventMaxPerSecond(int maxPerSecond) {
+        journal.setMaxPerSecond(maxPerSecond);
+    }
+
     // id na lokalniot node (host:port)
     public String getLocalNodeId() {
         return gossipService.getSelfId();
     }
 
-    // gasi gossip servis i scheduler
+    // gasi gossip servis i rebalance taskot, a runtime-ot samo ako e nas
     public void shutdown() {
+        rebalanceTask.cancel(false);
         gossipService.shutdown();
+        journalDrainTask.cancel(false);
+        journal.drain();
+        if (ownsRuntime) {
+            runtime.shutdown();
+        }
     }
 
     // za daden key, vrakja koj node e odgovoren spored consistent hash ringot
     public String findResponsibleNode(String key) {
         return hashRing.getNode(key);
     }
+
+    // kako findResponsibleNode, no samo megju jazlite sto objavile http api (npr. NodeRunner jazlite nemaat);
+    // key-ot odi na sledniot takov jazel po prstenot, null ako nitu eden nema api
+    public String findResponsibleApiNode(String key) {
+        return hashRing.getNode(key, nodeId -> getApiAddress(nodeId) != null);
+    }
+
+    // enkodiran snapshot zaedno so epohata za koja vazi
+    private static final class EncodedRing {
+        private final long epoch;
+        private final byte[] bytes;
+
+        private EncodedRing(long epoch, byte[] bytes) {
+            this.epoch = epoch;
+            this.bytes = bytes;
+        }
+    }
 }
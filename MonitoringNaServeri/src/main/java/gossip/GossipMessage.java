@@ -1,6 +1,7 @@
 package gossip;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Map;
@@ -8,26 +9,39 @@ import java.util.Map;
 /**
  * Gossip порака што се праќа преку UDP (JSON).
  * Поддржува:
- *  - GOSSIP_PUSH: праќа дел/цел membership + digest
+ *  - GOSSIP_PUSH: праќа дел/цел membership + корен на Merkle дрвото (summary),
+ *    или digest само за кофите што се разликуваат; носи и push-sum дел за агрегација на load
+ *  - GOSSIP_SUMMARY: hash-ови на поддрва при спуштање низ Merkle дрвото
  *  - GOSSIP_PULL_REQ: бара листа на node-ови (digest = id -> dummy value)
  *  - GOSSIP_PULL_RES: враќа бараните NodeInfo во updates
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GossipMessage {
 
     private final String senderId;
-    private final String type; // GOSSIP_PUSH / GOSSIP_PULL_REQ / GOSSIP_PULL_RES
+    private final String type; // GOSSIP_PUSH / GOSSIP_SUMMARY / GOSSIP_PULL_REQ / GOSSIP_PULL_RES
     private final Map<String, NodeInfo> updates; // вистински записи (за PUSH и PULL_RES)
     private final Map<String, Long> digest;      // nodeId -> heartbeat (за PUSH) или само листа id-ја (за PULL_REQ)
+    private final Map<String, Long> summary;     // индекс на јазол во Merkle дрвото -> hash
+    private final AggregateShare aggregates;     // push-sum дел (само кај периодичниот PUSH)
+
+    public GossipMessage(String senderId, String type, Map<String, NodeInfo> updates, Map<String, Long> digest) {
+        this(senderId, type, updates, digest, null, null);
+    }
 
     @JsonCreator
     public GossipMessage(@JsonProperty("senderId") String senderId,
                          @JsonProperty("type") String type,
                          @JsonProperty("updates") Map<String, NodeInfo> updates,
-                         @JsonProperty("digest") Map<String, Long> digest) {
+                         @JsonProperty("digest") Map<String, Long> digest,
+                         @JsonProperty("summary") Map<String, Long> summary,
+                         @JsonProperty("aggregates") AggregateShare aggregates) {
         this.senderId = senderId;
         this.type = type;
         this.updates = updates;
         this.digest = digest;
+        this.summary = summary;
+        this.aggregates = aggregates;
     }
 
     public String getSenderId() {
@@ -45,4 +59,12 @@ public class GossipMessage {
     public Map<String, Long> getDigest() {
         return digest;
     }
+
+    public Map<String, Long> getSummary() {
+        return summary;
+    }
+
+    public AggregateShare getAggregates() {
+        return aggregates;
+    }
 }
@@ -0,0 +1,276 @@
+package gossip;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// zaednicki resursi za gossip jazli vo ist JVM: eden timer, eden i/o loop (udp + tcp accept) i eden handler pool
+// so ova povekje GossipManager instanci (embedded mode) ne trosat sopstveni nitki po jazel
+public class GossipRuntime {
+
+    // maksimalna golemina na udp paket (bafer), eden bafer za site kanali
+    private static final int UDP_BUFFER_SIZE = 65535;
+    // serverski tcp sync: najmnogu tolku konekcii se obrabotuvaat naednas, i tolku cekaat vo redica;
+    // preku toa konekcijata se zatvora, a klientot probuva povtorno vo slednata runda
+    private static final int SYNC_SERVER_THREADS = 4;
+    private static final int SYNC_SERVER_QUEUE = 16;
+    // klientski tcp sync: 2 nitki za site jazli vo process-ot i ogranicena redica (dovolna za bootstrap
+    // na nekolku stotini embedded jazli, po eden sync kon seed-ot);
+    // koga e polna baranjeto se frla (periodicniot sync ili sledniot triger ke probaat povtorno)
+    private static final int SYNC_CLIENT_THREADS = 2;
+    private static final int SYNC_CLIENT_QUEUE = 1024;
+    // najmnogu paketi od eden kanal vo edno izvrsuvanje; potoa kanalot se vrakja na kraj od redicata,
+    // za eden zafaten jazel da ne drzi zaednicka handler nitka neograniceno
+    private static final int SERIAL_BATCH_SIZE = 64;
+
+    // timer za periodichni taskovi (gossip rundi, failure detection, rebalance)
+    private final ScheduledExecutorService timer;
+    // pool vo koj se izvrsuvaat handlerite za primeni poraki
+    private final ExecutorService handlers;
+    // blokirachki tcp sync: klientskite baranja vo mal ogranicen pool, serverskata strana posebno,
+    // za klientite da ne gi izgladnat serverskite odgovori (nitu udp handlerite)
+    private final ExecutorService syncClients;
+    private final ExecutorService syncServers;
+    // selector sto gi slusa site registrirani udp kanali i tcp server socketi
+    private final Selector selector;
+    // registracii sto cekaat da gi prezeme i/o nitkata (selector ne e thread-safe za register)
+    private final Queue<Runnable> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    // i/o nitka sto gi cita paketite i gi prefrla na handlerite
+    private final Thread ioThread;
+
+    private volatile boolean running = true;
+
+    // konstruktor: kreira timer so timerThreads nitki i handler pool so handlerThreads nitki
+    public GossipRuntime(int timerThreads, int handlerThreads) throws IOException {
+        this.timer = Executors.newScheduledThreadPool(timerThreads, daemonFactory("gossip-timer-"));
+        this.handlers = Executors.newFixedThreadPool(handlerThreads, daemonFactory("gossip-handler-"));
+        this.syncClients = new ThreadPoolExecutor(SYNC_CLIENT_THREADS, SYNC_CLIENT_THREADS,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SYNC_CLIENT_QUEUE),
+                daemonFactory("gossip-sync-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.syncServers = new ThreadPoolExecutor(SYNC_SERVER_THREADS, SYNC_SERVER_THREADS,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SYNC_SERVER_QUEUE),
+                daemonFactory("gossip-sync-serve-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.selector = Selector.open();
+
+        this.ioThread = new Thread(this::ioLoop, "gossip-io");
+        this.ioThread.setDaemon(true);
+        this.ioThread.start();
+    }
+
+    // runtime za eden samostoen jazel, ist broj nitki kako porano (2 timer + receiver)
+    public static GossipRuntime dedicated() throws IOException {
+        return new GossipRuntime(2, 1);
+    }
+
+    // runtime za mnogu jazli vo ist process, handler pool-ot e golem kolku brojot na jadra
+    public static GossipRuntime shared() throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new GossipRuntime(2, Math.max(2, cores));
+    }
+
+    public ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
+    // registrira udp kanal; handler-ot dobiva kopija od sekoj paket,
+    // a porakite za eden kanal se obrabotuvaat edna po edna (kako so posebna receiver nitka)
+    public void register(DatagramChannel channel, Consumer<byte[]> handler) throws IOException {
+        channel.configureBlocking(false);
+        SerialExecutor serial = new SerialExecutor(handlers, handler);
+
+        pendingRegistrations.add(() -> {
+            try {
+                channel.register(selector, SelectionKey.OP_READ, serial);
+            } catch (IOException e) {
+                System.err.println("[GossipRuntime] Cannot register channel: " + e.getMessage());
+            }
+        });
+        selector.wakeup();
+    }
+
+    // registrira tcp server socket; sekoja prifatena konekcija se obrabotuva vo serverskiot sync pool
+    public void registerAcceptor(ServerSocketChannel server, Consumer<SocketChannel> handler) throws IOException {
+        server.configureBlocking(false);
+
+        pendingRegistrations.add(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT, handler);
+            } catch (IOException e) {
+                System.err.println("[GossipRuntime] Cannot register acceptor: " + e.getMessage());
+            }
+        });
+        selector.wakeup();
+    }
+
+    // izvrsuva blokirachki tcp sync od klientska strana; false ako redicata e polna (ili pool-ot e ugasen)
+    public boolean executeSync(Runnable task) {
+        try {
+            syncClients.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // glavna i/o nitka: select nad site kanali i citanje na site paketi sto se gotovi
+    private void ioLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(UDP_BUFFER_SIZE);
+
+        while (running) {
+            try {
+                selector.select();
+
+                Runnable registration;
+                while ((registration = pendingRegistrations.poll()) != null) {
+                    registration.run();
+                }
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(key);
+                        continue;
+                    }
+                    if (!key.isReadable()) {
+                        continue;
+                    }
+                    DatagramChannel channel = (DatagramChannel) key.channel();
+                    SerialExecutor serial = (SerialExecutor) key.attachment();
+
+                    // isprazni go kanalot, sekoj paket odi kako posebna kopija do handlerot
+                    while (receive(channel, buffer) != null) {
+                        buffer.flip();
+                        byte[] data = new byte[buffer.remaining()];
+                        buffer.get(data);
+                        serial.submit(data);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (Exception e) {
+                System.err.println("[GossipRuntime] Error in io loop: " + e.getMessage());
+            }
+        }
+    }
+
+    // gi prifakja site konekcii sto cekaat i gi predava na handlerot na acceptor-ot
+    @SuppressWarnings("unchecked")
+    private void accept(SelectionKey key) {
+        ServerSocketChannel server = (ServerSocketChannel) key.channel();
+        Consumer<SocketChannel> handler = (Consumer<SocketChannel>) key.attachment();
+        try {
+            SocketChannel client;
+            while ((client = server.accept()) != null) {
+                SocketChannel connection = client;
+                try {
+                    syncServers.execute(() -> handler.accept(connection));
+                } catch (RejectedExecutionException e) {
+                    // pool-ot e poln (ili ugasen): odbij ja konekcijata namesto da se trupaat nitki
+                    connection.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[GossipRuntime] Accept error: " + e.getMessage());
+        }
+    }
+
+    // cita eden paket; zatvoren kanal se tretira kako prazen
+    private SocketAddress receive(DatagramChannel channel, ByteBuffer buffer) {
+        buffer.clear();
+        try {
+            return channel.receive(buffer);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // gasi i/o nitkata, timerot i handler pool-ot
+    public void shutdown() {
+        running = false;
+        timer.shutdownNow();
+        handlers.shutdownNow();
+        syncClients.shutdownNow();
+        syncServers.shutdownNow();
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // se gasime, nema sto da se napravi
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // izvrsuva paketi za eden kanal posledovatelno vrz zaednickiot pool
+    private static final class SerialExecutor {
+        private final Executor executor;
+        private final Consumer<byte[]> handler;
+        private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        SerialExecutor(Executor executor, Consumer<byte[]> handler) {
+            this.executor = executor;
+            this.handler = handler;
+        }
+
+        void submit(byte[] data) {
+            queue.add(data);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // pool-ot e ugasen
+                    queue.clear();
+                }
+            }
+        }
+
+        private void drain() {
+            byte[] data;
+            int processed = 0;
+            while (processed < SERIAL_BATCH_SIZE && (data = queue.poll()) != null) {
+                processed++;
+                try {
+                    handler.accept(data);
+                } catch (Exception e) {
+                    System.err.println("[GossipRuntime] Handler error: " + e.getMessage());
+                }
+            }
+            scheduled.set(false);
+            // ostanati paketi (nad batch-ot, ili pristignati megju poslednoto poll i set(false))
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // pool-ot e ugasen
+                    queue.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package gossip;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// push-sum agregacija na optovaruvanjeto (cpu, memorija) niz clusterot
+// sekoja epoha pocnuva od lokalen sample; vo sekoja gossip runda polovina od masata odi kaj peer-ot,
+// pa site jazli konvergiraat kon prosekot za O(log n) rundi. min/max se sirat kako obicen max-gossip.
+public class LoadAggregator {
+
+    // dolzina na edna epoha; na pocetok na sekoja epoha lokalniot load se sample-ira odnovo
+    private static final long EPOCH_MS = 60_000;
+
+    public static final String METRIC_CPU = "cpu";
+    public static final String METRIC_MEMORY = "memory";
+
+    // dava lokalni vrednosti za metrikite (metrika -> vrednost)
+    private final Supplier<Map<String, Double>> sampler;
+    // kolku ALIVE jazli ima vo clusterot, za sum = prosek * broj na jazli
+    private final IntSupplier clusterSize;
+
+    // push-sum sostojba za tekovnata epoha
+    private long epoch = -1;
+    private double weight;
+    private final Map<String, Double> sums = new HashMap<>();
+    private final Map<String, Double> mins = new HashMap<>();
+    private final Map<String, Double> maxs = new HashMap<>();
+
+    // procenka od poslednata zavrsena epoha (konvergirana)
+    private Map<String, MetricAggregate> published = Collections.emptyMap();
+
+    public LoadAggregator(Supplier<Map<String, Double>> sampler, IntSupplier clusterSize) {
+        this.sampler = sampler;
+        this.clusterSize = clusterSize;
+    }
+
+    // sampler za lokalniot server: cpu load i iskoristenost na fizicka memorija (0..1)
+    public static Supplier<Map<String, Double>> systemLoadSampler() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return () -> {
+            Map<String, Double> sample = new HashMap<>();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                com.sun.management.OperatingSystemMXBean sunOs = (com.sun.management.OperatingSystemMXBean) os;
+                sample.put(METRIC_CPU, Math.max(0, sunOs.getCpuLoad()));
+                long total = sunOs.getTotalMemorySize();
+                long free = sunOs.getFreeMemorySize();
+                sample.put(METRIC_MEMORY, total > 0 ? (total - free) / (double) total : 0);
+            } else {
+                sample.put(METRIC_CPU, Math.max(0, os.getSystemLoadAverage() / os.getAvailableProcessors()));
+            }
+            return sample;
+        };
+    }
+
+    // povikano vo sekoja gossip runda: zadrzuvame polovina od masata, drugata polovina ja prakjame
+    public synchronized AggregateShare prepareShare() {
+        rollTo(currentEpoch());
+
+        weight /= 2;
+        sums.replaceAll((metric, value) -> value / 2);
+
+        return new AggregateShare(epoch, weight, new HashMap<>(sums), new HashMap<>(mins), new HashMap<>(maxs));
+    }
+
+    // dodava masa dobiena od peer; masa od stara epoha se ignorira
+    public synchronized void merge(AggregateShare share) {
+        rollTo(Math.max(currentEpoch(), share.getEpoch()));
+        if (share.getEpoch() != epoch) {
+            return;
+        }
+
+        weight += share.getWeight();
+        if (share.getSums() != null) {
+            share.getSums().forEach((metric, value) -> sums.merge(metric, value, Double::sum));
+        }
+        if (share.getMins() != null) {
+            share.getMins().forEach((metric, value) -> mins.merge(metric, value, Math::min));
+        }
+        if (share.getMaxs() != null) {
+            share.getMaxs().forEach((metric, value) -> maxs.merge(metric, value, Math::max));
+        }
+    }
+
+    // procenki od poslednata zavrsena epoha, ili tekovnite ako sé uste nema zavrsena
+    public synchronized Map<String, MetricAggregate> getAggregates() {
+        rollTo(currentEpoch());
+        return published.isEmpty() ? estimates() : published;
+    }
+
+    // ako epohata e pominata: zapamti gi procenkite i pocni nova so svez lokalen sample
+    private void rollTo(long targetEpoch) {
+        if (targetEpoch <= epoch) {
+            return;
+        }
+        if (epoch >= 0) {
+            published = estimates();
+        }
+
+        epoch = targetEpoch;
+        weight = 1;
+        sums.clear();
+        mins.clear();
+        maxs.clear();
+
+        Map<String, Double> sample = sampler.get();
+        sums.putAll(sample);
+        mins.putAll(sample);
+        maxs.putAll(sample);
+    }
+
+    private Map<String, MetricAggregate> estimates() {
+        int nodes = Math.max(1, clusterSize.getAsInt());
+        Map<String, MetricAggregate> result = new LinkedHashMap<>();
+        sums.forEach((metric, sum) -> {
+            double average = weight > 0 ? sum / weight : 0;
+            result.put(metric, new MetricAggregate(metric, average, average * nodes,
+                    mins.getOrDefault(metric, average), maxs.getOrDefault(metric, average), epoch, nodes));
+        });
+        return result;
+    }
+
+    private static long currentEpoch() {
+        return System.currentTimeMillis() / EPOCH_MS;
+    }
+}
@@ -0,0 +1,68 @@
+package gossip;
+
+// strukturiran nastan od membership/ring logikata sto se zapisuva vo EventJournal
+public class MembershipEvent {
+
+    // tipovi na nastani
+    public static final String NODE_DISCOVERED = "NODE_DISCOVERED";
+    public static final String NODE_UPDATED = "NODE_UPDATED";
+    public static final String NODE_SUSPECT = "NODE_SUSPECT";
+    public static final String NODE_DEAD = "NODE_DEAD";
+    public static final String STATE_FORCED = "STATE_FORCED";
+    public static final String RING_REBUILT = "RING_REBUILT";
+
+    private final long sequence;
+    private final long timestamp;
+    private final String reporterId; // jazelot sto go zabelezal nastanot
+    private final String type;
+    private final String subjectId;  // jazelot na koj se odnesuva (null za RING_REBUILT)
+    private final NodeState state;
+    private final String detail;
+
+    public MembershipEvent(long sequence, long timestamp, String reporterId, String type,
+                           String subjectId, NodeState state, String detail) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.reporterId = reporterId;
+        this.type = type;
+        this.subjectId = subjectId;
+        this.state = state;
+        this.detail = detail;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getReporterId() {
+        return reporterId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public NodeState getState() {
+        return state;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + reporterId + ": " + type +
+                (subjectId != null ? " " + subjectId : "") +
+                (state != null ? " [" + state + "]" : "") +
+                (detail != null ? " " + detail : "");
+    }
+}
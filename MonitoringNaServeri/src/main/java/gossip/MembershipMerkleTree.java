@@ -0,0 +1,106 @@
+package gossip;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash дрво (Merkle) над membership листата, за anti-entropy без праќање на целиот digest.
+ * Јазлите се распоредени во LEAF_COUNT кофи според hash на id-то; листот е XOR од
+ * hash(id, state) за сите записи во кофата, а внатрешните јазли го комбинираат
+ * hash-от на двете деца. Heartbeat-от намерно не влегува во hash-от: секој јазол го зголемува
+ * својот heartbeat секоја рунда, па два живи погледа речиси никогаш не би се совпаднале;
+ * liveness-от патува со UDP delta-та, а дрвото ги споредува само членството и состојбите. Нумерацијата е како кај heap: 1 е коренот, деца на i се 2i и 2i+1,
+ * листовите се LEAF_COUNT .. 2*LEAF_COUNT-1.
+ */
+public final class MembershipMerkleTree {
+
+    // длабочина на дрвото (бинарно), LEAF_COUNT = 2^DEPTH кофи
+    static final int DEPTH = 8;
+    static final int LEAF_COUNT = 1 << DEPTH;
+    static final int ROOT = 1;
+
+    private final long[] nodes = new long[2 * LEAF_COUNT];
+
+    private MembershipMerkleTree() {
+    }
+
+    // гради дрво од моменталната состојба на membership листата
+    public static MembershipMerkleTree build(Collection<NodeInfo> members) {
+        MembershipMerkleTree tree = new MembershipMerkleTree();
+        for (NodeInfo info : members) {
+            long idHash = idHash(info.getId());
+            tree.nodes[LEAF_COUNT + bucketOf(idHash)] ^= mix(idHash ^ mix(stateCode(info.getState())));
+        }
+        for (int i = LEAF_COUNT - 1; i >= ROOT; i--) {
+            tree.nodes[i] = mix(tree.nodes[2 * i] ^ Long.rotateLeft(tree.nodes[2 * i + 1], 31));
+        }
+        return tree;
+    }
+
+    public long hash(int index) {
+        return nodes[index];
+    }
+
+    public long root() {
+        return nodes[ROOT];
+    }
+
+    public static boolean isLeaf(int index) {
+        return index >= LEAF_COUNT;
+    }
+
+    public static boolean isValid(int index) {
+        return index >= ROOT && index < 2 * LEAF_COUNT;
+    }
+
+    // индекс на листот (кофата) во која паѓа даден node id
+    public static int leafOf(String nodeId) {
+        return LEAF_COUNT + bucketOf(idHash(nodeId));
+    }
+
+    // summary со hash-овите на децата на даден внатрешен јазол
+    public void putChildren(int index, Map<String, Long> summary) {
+        summary.put(String.valueOf(2 * index), nodes[2 * index]);
+        summary.put(String.valueOf(2 * index + 1), nodes[2 * index + 1]);
+    }
+
+    // digest (id -> heartbeat) само за записите што паѓаат во дадените листови
+    public static Map<String, Long> digestOf(Collection<NodeInfo> members, Set<Integer> leaves) {
+        Map<String, Long> digest = new HashMap<>();
+        for (NodeInfo info : members) {
+            if (leaves.contains(leafOf(info.getId()))) {
+                digest.put(info.getId(), info.getHeartbeat());
+            }
+        }
+        return digest;
+    }
+
+    // стабилен код на состојбата (0 за непозната)
+    private static long stateCode(NodeState state) {
+        return state == null ? 0 : state.ordinal() + 1;
+    }
+
+    private static int bucketOf(long idHash) {
+        return (int) (idHash >>> (64 - DEPTH));
+    }
+
+    // FNV-1a 64 над UTF-8 бајтите, стабилно помеѓу различни JVM-ови
+    private static long idHash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
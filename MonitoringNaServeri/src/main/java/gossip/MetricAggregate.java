@@ -0,0 +1,51 @@
+package gossip;
+
+// kluster-vo agregat za edna metrika, kako sto go procenil lokalniot jazel
+public class MetricAggregate {
+
+    private final String metric;
+    private final double average;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final long epoch;
+    private final int nodes;
+
+    public MetricAggregate(String metric, double average, double sum, double min, double max, long epoch, int nodes) {
+        this.metric = metric;
+        this.average = average;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.epoch = epoch;
+        this.nodes = nodes;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+}
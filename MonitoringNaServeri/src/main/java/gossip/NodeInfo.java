@@ -1,24 +1,41 @@
 package gossip;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 // zapis
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class NodeInfo {
 
     private final String id;
     private long heartbeat;
     private NodeState state;
     private long timestamp;
+    // host:port na rest api-to na jazelot (null ako jazelot nema http server)
+    private String apiAddress;
+    // topologija: zona (datacenter) i rack, za biran izbor na peer (null ako ne e konfigurirano)
+    private String zone;
+    private String rack;
+
+    public NodeInfo(String id, long heartbeat, NodeState state, long timestamp) {
+        this(id, heartbeat, state, timestamp, null, null, null);
+    }
 
     @JsonCreator
     public NodeInfo(@JsonProperty("id") String id,
                     @JsonProperty("heartbeat") long heartbeat,
                     @JsonProperty("state") NodeState state,
-                    @JsonProperty("timestamp") long timestamp) {
+                    @JsonProperty("timestamp") long timestamp,
+                    @JsonProperty("apiAddress") String apiAddress,
+                    @JsonProperty("zone") String zone,
+                    @JsonProperty("rack") String rack) {
         this.id = id;
         this.heartbeat = heartbeat;
         this.state = state;
         this.timestamp = timestamp;
+        this.apiAddress = apiAddress;
+        this.zone = zone;
+        this.rack = rack;
     }
 
     public NodeInfo() {
@@ -57,6 +74,58 @@ public class NodeInfo {
         this.timestamp = timestamp;
     }
 
+    public synchronized String getApiAddress() {
+        return apiAddress;
+    }
+
+    public synchronized void setApiAddress(String apiAddress) {
+        this.apiAddress = apiAddress;
+    }
+
+    public synchronized String getZone() {
+        return zone;
+    }
+
+    public synchronized void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public synchronized String getRack() {
+        return rack;
+    }
+
+    public synchronized void setRack(String rack) {
+        this.rack = rack;
+    }
+
+    // go prifakja remote zapisot ako ima pogolem heartbeat; sporedbata i site promeni se pod ist lock,
+    // za paralelni merge-ovi (udp handler i tcp sync) da ne ostavat mesana sostojba od dve verzii
+    public boolean mergeIfNewer(NodeInfo remote) {
+        long remoteHeartbeat = remote.getHeartbeat();
+        NodeState remoteState = remote.getState();
+        String remoteApi = remote.getApiAddress();
+        String remoteZone = remote.getZone();
+        String remoteRack = remote.getRack();
+        synchronized (this) {
+            if (remoteHeartbeat <= heartbeat) {
+                return false;
+            }
+            heartbeat = remoteHeartbeat;
+            state = remoteState;
+            timestamp = System.currentTimeMillis();
+            if (remoteApi != null) {
+                apiAddress = remoteApi;
+            }
+            if (remoteZone != null) {
+                zone = remoteZone;
+            }
+            if (remoteRack != null) {
+                rack = remoteRack;
+            }
+            return true;
+        }
+    }
+
     @Override
     public String toString() {
         return "NodeInfo{" +
@@ -64,6 +133,9 @@ public class NodeInfo {
                 ", heartbeat=" + heartbeat +
                 ", state=" + state +
                 ", timestamp=" + timestamp +
+                ", apiAddress=" + apiAddress +
+                ", zone=" + zone +
+                ", rack=" + rack +
                 '}';
     }
 }
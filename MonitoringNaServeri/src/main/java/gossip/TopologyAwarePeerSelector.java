@@ -0,0 +1,57 @@
+package gossip;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+
+// izbor na gossip peer so prednost na jazli od istata zona:
+// so verojatnost crossZoneFraction se bira peer od druga zona, inaku od istata.
+// ako edna od grupite e prazna, se bira od drugata, pa diseminacijata nikogas ne zaglavuva.
+public class TopologyAwarePeerSelector {
+
+    private final Random random;
+    private volatile double crossZoneFraction;
+
+    public TopologyAwarePeerSelector(Random random, double crossZoneFraction) {
+        this.random = random;
+        setCrossZoneFraction(crossZoneFraction);
+    }
+
+    // kandidatite treba vekje da se filtrirani (bez self i bez DEAD jazli)
+    public Optional<NodeInfo> select(Collection<NodeInfo> candidates, String selfZone) {
+        List<NodeInfo> sameZone = new ArrayList<>();
+        List<NodeInfo> otherZone = new ArrayList<>();
+        for (NodeInfo node : candidates) {
+            if (Objects.equals(node.getZone(), selfZone)) {
+                sameZone.add(node);
+            } else {
+                otherZone.add(node);
+            }
+        }
+
+        List<NodeInfo> pool;
+        if (sameZone.isEmpty()) {
+            pool = otherZone;
+        } else if (otherZone.isEmpty()) {
+            pool = sameZone;
+        } else {
+            pool = random.nextDouble() < crossZoneFraction ? otherZone : sameZone;
+        }
+
+        if (pool.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(pool.get(random.nextInt(pool.size())));
+    }
+
+    public double getCrossZoneFraction() {
+        return crossZoneFraction;
+    }
+
+    public void setCrossZoneFraction(double crossZoneFraction) {
+        this.crossZoneFraction = Math.max(0, Math.min(1, crossZoneFraction));
+    }
+}
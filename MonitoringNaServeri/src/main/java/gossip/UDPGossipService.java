@@ -2,53 +2,126 @@ package gossip;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.IOException;
 import java.net.InetAddress;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 // udp implementacija na swim/gossip protokol za membership i failure detection
 public class UDPGossipService {
 
-    // maksimalna golemina na udp paket (bafer)
-    private static final int UDP_BUFFER_SIZE = 65535;
     // interval pomegju dve gossip rundi vo ms
     private static final int GOSSIP_INTERVAL_MS = 3000;
     // kolku vreme sme spremni da cekame pred da proglasime SUSPECT
     private static final int SUSPECT_TIMEOUT_MS = 7000;
     // kolku vreme posle suspect cekame pred da proglasime DEAD
     private static final int DEAD_TIMEOUT_MS = 14000;
-    // timeout za socket.receive za da ne blokira beskonecno
-    private static final int SOCKET_TIMEOUT_MS = 2000;
+    // na sekoi kolku gossip rundi pravime full-state sync preku tcp so slucaen peer
+    private static final int FULL_SYNC_EVERY_ROUNDS = 10;
+    // udp push gi nosi samo zapisite promeneti vo ovoj prozorec (delta), ne celata lista
+    private static final int DELTA_WINDOW_MS = 2 * GOSSIP_INTERVAL_MS;
+    // najmnogu zapisi vo eden udp push
+    private static final int MAX_UDP_UPDATES = 200;
+    // najgolem json payload sto go prakjame preku udp; pogolemi razmeni odat preku tcp
+    private static final int MAX_UDP_PAYLOAD = 60_000;
+    // ako ni nedostasuvaat poveke zapisi od ova, pravime tcp sync namesto PULL_REQ
+    private static final int MAX_PULL_IDS = 500;
+    // digest za razlicnite kofi se deli na najmnogu tolku udp poraki; za pogolema razlika tcp sync
+    private static final int MAX_DIGEST_CHUNKS = 8;
+    // rezerva vo eden datagram za ostatokot od porakata (senderId, type, summary) pokraj digest-ot
+    private static final int DIGEST_ENVELOPE_BYTES = 1024;
+    // kesiranoto Merkle drvo se gradi odnovo najdocna po tolku vreme i bez promena na verzijata
+    private static final long TREE_MAX_AGE_MS = GOSSIP_INTERVAL_MS;
+    // kolku dolgo (peer, id) se smeta za baran i ne se bara povtorno od istiot peer
+    private static final int PULL_INFLIGHT_TIMEOUT_MS = 2000;
+    // token bucket za izlezni PULL_REQ po peer: burst i polnenje vo sekunda
+    private static final int PULL_BURST_PER_PEER = 5;
+    private static final double PULL_RATE_PER_PEER = 2.0;
+    // token bucket za tcp sync kako rezerva (premnogu id-a ili prevelik odgovor) po peer
+    private static final int FALLBACK_SYNC_BURST_PER_PEER = 1;
+    private static final double FALLBACK_SYNC_RATE_PER_PEER = 0.1;
+    // i za celiot jazel: najmnogu tolku istovremeni, i token bucket nad site peer-ovi zaedno,
+    // za sekoj nov peer so sopstven token da ne moze da pokrene uste eden sync
+    private static final int MAX_INFLIGHT_FALLBACK_SYNCS = 2;
+    private static final int FALLBACK_SYNC_BURST_PER_NODE = 2;
+    private static final double FALLBACK_SYNC_RATE_PER_NODE = 0.2;
 
     // tipovi na gossip poraki
     private static final String MSG_TYPE_GOSSIP_PUSH = "GOSSIP_PUSH";
+    private static final String MSG_TYPE_GOSSIP_SUMMARY = "GOSSIP_SUMMARY";
     private static final String MSG_TYPE_GOSSIP_PULL_REQ = "GOSSIP_PULL_REQ";
     private static final String MSG_TYPE_GOSSIP_PULL_RES = "GOSSIP_PULL_RES";
+    private static final String MSG_TYPE_FULL_SYNC = "FULL_SYNC";
 
     // jackson mapper za json (serijalizacija/de-serializacija)
     private final ObjectMapper mapper = new ObjectMapper();
     // id na ovaj node vo format host:port
     private final String selfId;
-    // udp socket na koj slusame i prakjame gossip
-    private final DatagramSocket socket;
+    // udp kanal na koj slusame i prakjame gossip
+    private final DatagramChannel channel;
+    // tcp server socket na istiot port za full-state sync
+    private final ServerSocketChannel syncServer;
+    private final FullStateSync fullStateSync = new FullStateSync(mapper);
+    // broj na izvrseni gossip rundi (gossipLoop ne se izvrsuva paralelno sam so sebe)
+    private long round;
     // lokalna membership mapa: nodeId -> NodeInfo
     private final Map<String, NodeInfo> membershipList;
-    // scheduler za periodichni gossip i failure detection taskovi
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    // random generator za izbor na peer
-    private final Random random = new Random();
-
-    // konstruktor: otvara udp socket, gi dodava self i seed jazlite vo membership listata
-    public UDPGossipService(String host, int port, List<String> seedNodes) throws SocketException {
+    // zaednicki timer i i/o loop (moze da se deli so drugi jazli vo ist process)
+    private final GossipRuntime runtime;
+    // periodichnite taskovi na ovoj jazel, za da mozat da se otkazat pri shutdown
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    // zurnal na membership nastani; receive patekata samo zapisuva, ne pecati
+    private final EventJournal journal;
+    // push-sum agregacija na cpu/memory load, se zakacuva na sekoj GOSSIP_PUSH
+    private final LoadAggregator loadAggregator;
+    // izbor na peer so prednost na istata zona (default 20% od rundite odat vo druga zona)
+    private final TopologyAwarePeerSelector peerSelector = new TopologyAwarePeerSelector(new Random(), 0.2);
+    // isprateni bajti kon jazli vo istata zona i kon jazli vo druga zona
+    private final LongAdder inZoneBytes = new LongAdder();
+    private final LongAdder crossZoneBytes = new LongAdder();
+    // tcp sync bajti (dvete nasoki) spored zonata na peer-ot
+    private final LongAdder syncInZoneBytes = new LongAdder();
+    private final LongAdder syncCrossZoneBytes = new LongAdder();
+
+    // "peer|id" -> rok do koj baranjeto za id kon peer se smeta vo tek
+    private final ConcurrentMap<String, Long> inflightPulls = new ConcurrentHashMap<>();
+    // peer -> token bucket za izlezni PULL_REQ
+    private final ConcurrentMap<String, TokenBucket> pullLimiters = new ConcurrentHashMap<>();
+    // id -> json na NodeInfo enkodiran za daden heartbeat, za povtorna upotreba vo PULL_RES
+    private final ConcurrentMap<String, EncodedEntry> encodedEntries = new ConcurrentHashMap<>();
+    private final LongAdder pullRequestsSent = new LongAdder();
+    private final LongAdder pullIdsSuppressed = new LongAdder();
+    private final LongAdder pullRequestsThrottled = new LongAdder();
+    private final LongAdder encodedEntryHits = new LongAdder();
+    // verzija na clenstvoto (nov clen ili promena na sostojba); drvoto ne zavisi od heartbeat-ite
+    private final AtomicLong membershipVersion = new AtomicLong();
+    private volatile CachedTree cachedTree;
+    // peer-ovi so koi vekje tece tcp sync kako rezerva, i ogranicuvanje na takvite sync-ovi po peer
+    private final Set<String> inflightSyncs = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, TokenBucket> syncLimiters = new ConcurrentHashMap<>();
+    private final TokenBucket nodeSyncLimiter = new TokenBucket(FALLBACK_SYNC_BURST_PER_NODE, FALLBACK_SYNC_RATE_PER_NODE);
+    private final LongAdder fallbackSyncsStarted = new LongAdder();
+    private final LongAdder fallbackSyncsSuppressed = new LongAdder();
+    private final LongAdder fallbackSyncsThrottled = new LongAdder();
+
+    // konstruktor: otvara udp kanal, gi dodava self i seed jazlite vo membership listata
+    public UDPGossipService(GossipRuntime runtime, EventJournal journal,
+                            String host, int port, List<String> seedNodes) throws IOException {
+        this.runtime = runtime;
+        this.journal = journal;
         this.selfId = host + ":" + port;
-        this.socket = new DatagramSocket(port);
-        this.socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+        this.channel = DatagramChannel.open().bind(new InetSocketAddress(port));
+        this.syncServer = ServerSocketChannel.open().bind(new InetSocketAddress(port));
         this.membershipList = new ConcurrentHashMap<>();
+        this.loadAggregator = new LoadAggregator(LoadAggregator.systemLoadSampler(), this::countAliveNodes);
 
         // dodaj ja informacijata za sopstveniot node
         NodeInfo selfInfo = new NodeInfo(selfId, 0, NodeState.ALIVE, System.currentTimeMillis());
@@ -64,58 +137,55 @@ public class UDPGossipService {
         }
     }
 
-    // startuvanje na receive nitka + periodichni gossip i failure detection taskovi
-    public void start() {
+    // registracija na kanalot vo i/o loop-ot + periodichni gossip i failure detection taskovi
+    public void start() throws IOException {
         System.out.println("[Gossip] Service started on: " + selfId);
 
-        // nitka koja neprekidno primase udp poraki
-        Thread receiverThread = new Thread(this::receiveLoop, "udp-gossip-receiver-" + selfId);
-        receiverThread.setDaemon(true);
-        receiverThread.start();
+        // paketite gi cita zaednickiot i/o loop i gi prefrla na handleMessage
+        runtime.register(channel, this::handleMessage);
+        // tcp full-state sync konekciite isto taka gi prifakja zaednickiot i/o loop
+        runtime.registerAcceptor(syncServer, this::serveFullSync);
+
+        ScheduledExecutorService scheduler = runtime.getTimer();
 
         // periodicen gossip (push) kon slucaen peer
-        scheduler.scheduleAtFixedRate(this::gossipLoop,
-                0, GOSSIP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        tasks.add(scheduler.scheduleAtFixedRate(this::gossipLoop,
+                0, GOSSIP_INTERVAL_MS, TimeUnit.MILLISECONDS));
 
         // periodicen local failure detection baziran na timestamp
-        scheduler.scheduleAtFixedRate(this::checkForFailures,
-                GOSSIP_INTERVAL_MS, GOSSIP_INTERVAL_MS, TimeUnit.MILLISECONDS);
-    }
+        tasks.add(scheduler.scheduleAtFixedRate(this::checkForFailures,
+                GOSSIP_INTERVAL_MS, GOSSIP_INTERVAL_MS, TimeUnit.MILLISECONDS));
 
-    // glavna nitka sto slusa udp poraki i gi delegira na handleri
-    private void receiveLoop() {
-        byte[] buffer = new byte[UDP_BUFFER_SIZE];
-        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-
-        while (!Thread.currentThread().isInterrupted() && !socket.isClosed()) {
-            try {
-                // blokira do SOCKET_TIMEOUT_MS ili do pristignuvanje na paket
-                socket.receive(packet);
-                String json = new String(packet.getData(), 0, packet.getLength());
-
-                // ja citame GossipMessage od json
-                GossipMessage message = mapper.readValue(json, GossipMessage.class);
-                String type = message.getType();
-
-                // prefrli na soodvetniot handler spored tipot na porakata
-                if (MSG_TYPE_GOSSIP_PUSH.equals(type)) {
-                    handleGossipPush(message);
-                } else if (MSG_TYPE_GOSSIP_PULL_REQ.equals(type)) {
-                    handleGossipPullReq(message);
-                } else if (MSG_TYPE_GOSSIP_PULL_RES.equals(type)) {
-                    handleGossipPullRes(message);
-                }
+        // join bootstrap: celata sostojba od seed jazlite ja zemame preku tcp, ne so mnogu udp rundi
+        for (String seed : new ArrayList<>(membershipList.keySet())) {
+            if (!seed.equals(selfId)) {
+                runtime.executeSync(() -> fullSyncWith(seed));
+            }
+        }
+    }
 
-            } catch (SocketTimeoutException ignored) {
-                // normalno: isto vreme koristi se za da mozeme da proverime dali socketot e zatvoren
-            } catch (SocketException se) {
-                // ako socketot e zatvoren prekini ja receiveLoop
-                if (socket.isClosed()) {
-                    break;
-                }
-            } catch (Exception e) {
-                System.err.println(selfId + ": Error while receiving gossip message: " + e.getMessage());
+    // obrabotka na eden primen udp paket, gi delegira porakite na handleri
+    private void handleMessage(byte[] data) {
+        try {
+            String json = new String(data);
+
+            // ja citame GossipMessage od json
+            GossipMessage message = mapper.readValue(json, GossipMessage.class);
+            String type = message.getType();
+
+            // prefrli na soodvetniot handler spored tipot na porakata
+            if (MSG_TYPE_GOSSIP_PUSH.equals(type)) {
+                handleGossipPush(message);
+            } else if (MSG_TYPE_GOSSIP_SUMMARY.equals(type)) {
+                handleGossipSummary(message);
+            } else if (MSG_TYPE_GOSSIP_PULL_REQ.equals(type)) {
+                handleGossipPullReq(message);
+            } else if (MSG_TYPE_GOSSIP_PULL_RES.equals(type)) {
+                handleGossipPullRes(message);
             }
+
+        } catch (Exception e) {
+            System.err.println(selfId + ": Error while receiving gossip message: " + e.getMessage());
         }
     }
 
@@ -126,24 +196,110 @@ public class UDPGossipService {
             mergeMembershipList(message.getUpdates());
         }
 
-        // 2) digest: proveruvame za koi node-ovi peer-ot ima pogolemi heartbeat-i
+        // 2) push-sum masa za agregacija na load
+        if (message.getAggregates() != null) {
+            loadAggregator.merge(message.getAggregates());
+        }
+
+        // 3) summary: sporedba na Merkle drvoto, se spustame samo vo razlicnite poddrva
         Map<String, Long> remoteDigest = message.getDigest();
+        if (message.getSummary() != null) {
+            compareSummary(message.getSenderId(), message.getSummary(), remoteDigest);
+        }
+
+        // 4) digest (samo za razlicnite kofi): proveruvame za koi node-ovi peer-ot ima pogolemi heartbeat-i
         if (remoteDigest == null || remoteDigest.isEmpty()) {
             return;
         }
 
         // soberi lista od id-a za koi ni nedostavaat ili zaostanuvame so versija
+        String senderId = message.getSenderId();
+        long now = System.currentTimeMillis();
         List<String> missingIds = remoteDigest.entrySet().stream()
                 .filter(e -> {
                     NodeInfo local = membershipList.get(e.getKey());
                     return local == null || local.getHeartbeat() < e.getValue();
                 })
                 .map(Map.Entry::getKey)
+                .filter(id -> !isPullInflight(senderId, id, now))
                 .collect(Collectors.toList());
 
-        // ako ima nekoj zaostanat zapis, pobaraj gi so PULL_REQ
-        if (!missingIds.isEmpty()) {
-            sendPullRequest(message.getSenderId(), missingIds);
+        // ako ima nekoj zaostanat zapis, pobaraj gi so PULL_REQ; ako se premnogu za udp, tcp sync
+        if (missingIds.size() > MAX_PULL_IDS) {
+            requestFullSync(senderId);
+        } else if (!missingIds.isEmpty()) {
+            // ogranicuvanje po peer; odbienite id-a ke se pobaraat so nekoj sleden PUSH
+            if (!pullLimiters.computeIfAbsent(senderId,
+                    p -> new TokenBucket(PULL_BURST_PER_PEER, PULL_RATE_PER_PEER)).tryAcquire()) {
+                pullRequestsThrottled.increment();
+                return;
+            }
+            long deadline = now + PULL_INFLIGHT_TIMEOUT_MS;
+            missingIds.forEach(id -> inflightPulls.put(senderId + "|" + id, deadline));
+            sendPullRequest(senderId, missingIds);
+        }
+    }
+
+    // obrabotka na GOSSIP_SUMMARY: peer ni gi pratil hash-ovite na poddrvata sto se razlikuvale
+    private void handleGossipSummary(GossipMessage message) {
+        if (message.getSummary() != null) {
+            compareSummary(message.getSenderId(), message.getSummary(), null);
+        }
+    }
+
+    // sporeduva remote hash-ovi so lokalnoto Merkle drvo:
+    //  - razlicen vnatresen jazel -> mu gi prakjame nasite hash-ovi na decata (GOSSIP_SUMMARY)
+    //  - razlicen list bez remote digest -> mu go prakjame nasiot digest za tie kofi (GOSSIP_PUSH)
+    //  - razlicen list so remote digest -> mu gi vrakjame zapisite kade sme ponovi (GOSSIP_PULL_RES)
+    private void compareSummary(String senderId, Map<String, Long> remoteSummary, Map<String, Long> remoteDigest) {
+        MembershipMerkleTree tree = membershipTree();
+
+        Map<String, Long> childSummary = new HashMap<>();
+        Set<Integer> differingLeaves = new HashSet<>();
+
+        for (Map.Entry<String, Long> entry : remoteSummary.entrySet()) {
+            int index;
+            try {
+                index = Integer.parseInt(entry.getKey());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (!MembershipMerkleTree.isValid(index) || entry.getValue() == null
+                    || tree.hash(index) == entry.getValue()) {
+                continue;
+            }
+
+            if (MembershipMerkleTree.isLeaf(index)) {
+                differingLeaves.add(index);
+            } else {
+                tree.putChildren(index, childSummary);
+            }
+        }
+
+        if (!childSummary.isEmpty()) {
+            sendSummary(senderId, childSummary);
+        }
+        if (differingLeaves.isEmpty()) {
+            return;
+        }
+
+        List<NodeInfo> members = new ArrayList<>(membershipList.values());
+        if (remoteDigest == null) {
+            sendBucketDigest(senderId, tree, MembershipMerkleTree.digestOf(members, differingLeaves), differingLeaves);
+        } else {
+            Map<String, NodeInfo> newer = new HashMap<>();
+            for (NodeInfo info : members) {
+                if (!differingLeaves.contains(MembershipMerkleTree.leafOf(info.getId()))) {
+                    continue;
+                }
+                Long remoteHeartbeat = remoteDigest.get(info.getId());
+                if (remoteHeartbeat == null || remoteHeartbeat < info.getHeartbeat()) {
+                    newer.put(info.getId(), info);
+                }
+            }
+            if (!newer.isEmpty()) {
+                sendPullResponse(senderId, newer);
+            }
         }
     }
 
@@ -172,10 +328,26 @@ public class UDPGossipService {
     // obrabotka na GOSSIP_PULL_RES: dobivame zaostanati/novi NodeInfo i gi mergirame
     private void handleGossipPullRes(GossipMessage message) {
         if (message.getUpdates() != null) {
+            message.getUpdates().keySet().forEach(id -> inflightPulls.remove(message.getSenderId() + "|" + id));
             mergeMembershipList(message.getUpdates());
         }
     }
 
+    // dali id vekje e baran od peer i odgovorot se uste se ceka; istecenite baranja se brisat
+    private boolean isPullInflight(String peerId, String id, long now) {
+        String key = peerId + "|" + id;
+        Long deadline = inflightPulls.get(key);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline < now) {
+            inflightPulls.remove(key, deadline);
+            return false;
+        }
+        pullIdsSuppressed.increment();
+        return true;
+    }
+
     // periodicen gossip ciklus: update na self i push kon slucaen peer
     private void gossipLoop() {
         try {
@@ -194,15 +366,23 @@ public class UDPGossipService {
 
             NodeInfo peer = peerOpt.get();
 
-            // vo ova poednostaveno scenario prakjame cela membership lista kako "diff"
-            Map<String, NodeInfo> updates = new HashMap<>(membershipList);
-            Map<String, Long> digest = buildDigest();
+            // periodicno celata sostojba odi preku tcp, a udp push nosi samo delta
+            if (++round % FULL_SYNC_EVERY_ROUNDS == 0) {
+                runtime.executeSync(() -> fullSyncWith(peer.getId()));
+            }
+            Map<String, NodeInfo> updates = recentUpdates();
+
+            // namesto digest za sekoj node prakjame samo koren na Merkle drvoto;
+            // ako peer-ot ima ista slika ova e celata anti-entropy razmena
+            Map<String, Long> summary = Map.of(String.valueOf(MembershipMerkleTree.ROOT), membershipTree().root());
 
             GossipMessage message = new GossipMessage(
                     selfId,
                     MSG_TYPE_GOSSIP_PUSH,
                     updates,
-                    digest
+                    null,
+                    summary,
+                    loadAggregator.prepareShare()
             );
 
             String json = mapper.writeValueAsString(message);
@@ -213,23 +393,122 @@ public class UDPGossipService {
         }
     }
 
-    // gradi digest mapa: nodeId -> heartbeat za celata membership lista
-    private Map<String, Long> buildDigest() {
-        Map<String, Long> digest = new HashMap<>();
-        membershipList.forEach((id, info) -> digest.put(id, info.getHeartbeat()));
-        return digest;
+    // Merkle drvo za momentalnata verzija na clenstvoto; se gradi odnovo (O(n)) samo po promena,
+    // ne za sekoj primen GOSSIP_SUMMARY. verzijata se cita pred gradenjeto, pa promena za vreme
+    // na gradenjeto samo go ponistuva kesot. starosta e rezerva za promeni sto ne ja zgolemile verzijata
+    private MembershipMerkleTree membershipTree() {
+        long version = membershipVersion.get();
+        long now = System.currentTimeMillis();
+        CachedTree cached = cachedTree;
+        if (cached != null && cached.version == version && now - cached.builtAt < TREE_MAX_AGE_MS) {
+            return cached.tree;
+        }
+
+        MembershipMerkleTree tree = MembershipMerkleTree.build(membershipList.values());
+        cachedTree = new CachedTree(version, now, tree);
+        return tree;
+    }
+
+    // zapisi promeneti vo poslednite DELTA_WINDOW_MS (najnovite prvo, najmnogu MAX_UDP_UPDATES) + self
+    private Map<String, NodeInfo> recentUpdates() {
+        long since = System.currentTimeMillis() - DELTA_WINDOW_MS;
+        Map<String, NodeInfo> updates = new HashMap<>();
+        membershipList.values().stream()
+                .filter(n -> n.getTimestamp() >= since)
+                .sorted(Comparator.comparingLong(NodeInfo::getTimestamp).reversed())
+                .limit(MAX_UDP_UPDATES)
+                .forEach(n -> updates.put(n.getId(), n));
+        updates.put(selfId, membershipList.get(selfId));
+        return updates;
+    }
+
+    // push-pull full-state sync so daden peer preku tcp (povikano od handler pool-ot)
+    public boolean fullSyncWith(String peerId) {
+        try {
+            GossipMessage request = new GossipMessage(selfId, MSG_TYPE_FULL_SYNC, new HashMap<>(membershipList), null);
+            GossipMessage response = fullStateSync.exchange(peerId, request, syncTrafficFor(peerId));
+            if (response.getUpdates() != null) {
+                mergeMembershipList(response.getUpdates());
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println(selfId + ": Full sync with " + peerId + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // tcp sync kako rezerva za udp razmena sto ne sobira vo eden datagram;
+    // najmnogu eden vo tek po peer, ograniceni po peer i za celiot jazel, za povtorenite trigeri
+    // da ne pravat bura od sync-ovi
+    private void requestFullSync(String peerId) {
+        if (!inflightSyncs.add(peerId)) {
+            fallbackSyncsSuppressed.increment();
+            return;
+        }
+        if (inflightSyncs.size() > MAX_INFLIGHT_FALLBACK_SYNCS
+                || !syncLimiters.computeIfAbsent(peerId,
+                        p -> new TokenBucket(FALLBACK_SYNC_BURST_PER_PEER, FALLBACK_SYNC_RATE_PER_PEER)).tryAcquire()
+                || !nodeSyncLimiter.tryAcquire()) {
+            inflightSyncs.remove(peerId);
+            fallbackSyncsThrottled.increment();
+            return;
+        }
+
+        boolean queued = runtime.executeSync(() -> {
+            try {
+                fullSyncWith(peerId);
+            } finally {
+                inflightSyncs.remove(peerId);
+            }
+        });
+        if (queued) {
+            fallbackSyncsStarted.increment();
+        } else {
+            // zaednickata redica za sync e polna
+            inflightSyncs.remove(peerId);
+            fallbackSyncsThrottled.increment();
+        }
+    }
+
+    // server strana na tcp sync: mergiraj ja sostojbata na peer-ot i vrati ja nasata
+    private void serveFullSync(SocketChannel connection) {
+        try {
+            String[] requester = new String[1];
+            long bytes = fullStateSync.serve(connection, request -> {
+                requester[0] = request.getSenderId();
+                if (request.getUpdates() != null) {
+                    mergeMembershipList(request.getUpdates());
+                }
+                return new GossipMessage(selfId, MSG_TYPE_FULL_SYNC, new HashMap<>(membershipList), null);
+            });
+            // posle merge-ot vekje ja znaeme zonata na baracot
+            syncTrafficFor(requester[0]).add(bytes);
+        } catch (Exception e) {
+            System.err.println(selfId + ": Error serving full sync: " + e.getMessage());
+        }
     }
 
-    // bira slucaen peer od dostupnite (alive ili suspect) jazli
+    // bira slucaen peer od dostupnite (alive ili suspect) jazli, najcesto od istata zona
     private Optional<NodeInfo> selectRandomPeer() {
         List<NodeInfo> availablePeers = membershipList.values().stream()
                 .filter(n -> n.getState() != NodeState.DEAD && !n.getId().equals(selfId))
                 .collect(Collectors.toList());
 
-        if (availablePeers.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(availablePeers.get(random.nextInt(availablePeers.size())));
+        return peerSelector.select(availablePeers, selfZone());
+    }
+
+    private String selfZone() {
+        return membershipList.get(selfId).getZone();
+    }
+
+    // dali peer-ot e vo nasata zona; nepoznat peer se broi kako megju-zoni
+    private boolean isSameZone(String peerId) {
+        NodeInfo peer = peerId != null ? membershipList.get(peerId) : null;
+        return peer != null && Objects.equals(peer.getZone(), selfZone());
+    }
+
+    private LongAdder syncTrafficFor(String peerId) {
+        return isSameZone(peerId) ? syncInZoneBytes : syncCrossZoneBytes;
     }
 
 
@@ -250,30 +529,156 @@ public class UDPGossipService {
 
             String json = mapper.writeValueAsString(pullReq);
             sendUdpMessage(targetId, json);
+            pullRequestsSent.increment();
 
         } catch (Exception e) {
             System.err.println(selfId + ": Error sending PULL_REQ: " + e.getMessage());
         }
     }
 
-    // isprakja GOSSIP_PULL_RES so realnite NodeInfo updates kon baraniot node
-    private void sendPullResponse(String targetId, Map<String, NodeInfo> updates) {
+    // isprakja GOSSIP_SUMMARY so hash-ovi na poddrva od Merkle drvoto
+    private void sendSummary(String targetId, Map<String, Long> summary) {
         try {
-            GossipMessage pullRes = new GossipMessage(
+            GossipMessage message = new GossipMessage(
                     selfId,
-                    MSG_TYPE_GOSSIP_PULL_RES,
-                    updates,
-                    Collections.emptyMap()
+                    MSG_TYPE_GOSSIP_SUMMARY,
+                    null,
+                    null,
+                    summary,
+                    null
             );
 
-            String json = mapper.writeValueAsString(pullRes);
+            String json = mapper.writeValueAsString(message);
             sendUdpMessage(targetId, json);
 
+        } catch (Exception e) {
+            System.err.println(selfId + ": Error sending SUMMARY: " + e.getMessage());
+        }
+    }
+
+    // isprakja GOSSIP_PUSH bez updates, samo so digest i hash-ovi za kofite sto se razlikuvaat.
+    // kofite se delat vo povekje poraki taka sto sekoja sobira vo eden datagram (cela kofa vo ista poraka,
+    // za primacot da znae deka digest-ot za nea e celosen); ako se potrebni premnogu poraki
+    // ili edna kofa ne sobira sama, razlikata se razmenuva so tcp sync
+    private void sendBucketDigest(String targetId, MembershipMerkleTree tree,
+                                  Map<String, Long> digest, Set<Integer> leaves) {
+        Map<Integer, Map<String, Long>> byLeaf = new HashMap<>();
+        digest.forEach((id, heartbeat) -> byLeaf
+                .computeIfAbsent(MembershipMerkleTree.leafOf(id), leaf -> new HashMap<>())
+                .put(id, heartbeat));
+
+        int budget = MAX_UDP_PAYLOAD - DIGEST_ENVELOPE_BYTES;
+        List<Map<String, Long>> digestChunks = new ArrayList<>();
+        List<Map<String, Long>> summaryChunks = new ArrayList<>();
+        Map<String, Long> chunkDigest = new HashMap<>();
+        Map<String, Long> chunkSummary = new HashMap<>();
+        int chunkBytes = 0;
+
+        for (int leaf : leaves) {
+            Map<String, Long> bucket = byLeaf.getOrDefault(leaf, Map.of());
+            int bucketBytes = estimateDigestBytes(bucket) + 32;
+            if (bucketBytes > budget) {
+                requestFullSync(targetId);
+                return;
+            }
+            if (chunkBytes + bucketBytes > budget) {
+                digestChunks.add(chunkDigest);
+                summaryChunks.add(chunkSummary);
+                chunkDigest = new HashMap<>();
+                chunkSummary = new HashMap<>();
+                chunkBytes = 0;
+            }
+            chunkDigest.putAll(bucket);
+            chunkSummary.put(String.valueOf(leaf), tree.hash(leaf));
+            chunkBytes += bucketBytes;
+        }
+        digestChunks.add(chunkDigest);
+        summaryChunks.add(chunkSummary);
+
+        if (digestChunks.size() > MAX_DIGEST_CHUNKS) {
+            requestFullSync(targetId);
+            return;
+        }
+
+        try {
+            for (int i = 0; i < digestChunks.size(); i++) {
+                GossipMessage message = new GossipMessage(
+                        selfId,
+                        MSG_TYPE_GOSSIP_PUSH,
+                        null,
+                        digestChunks.get(i),
+                        summaryChunks.get(i),
+                        null
+                );
+
+                String json = mapper.writeValueAsString(message);
+                if (json.length() > MAX_UDP_PAYLOAD) {
+                    requestFullSync(targetId);
+                    return;
+                }
+                sendUdpMessage(targetId, json);
+            }
+
+        } catch (Exception e) {
+            System.err.println(selfId + ": Error sending bucket digest: " + e.getMessage());
+        }
+    }
+
+    // priblizna golemina na digest vo json: "id":heartbeat, za sekoj zapis
+    private static int estimateDigestBytes(Map<String, Long> digest) {
+        int bytes = 0;
+        for (Map.Entry<String, Long> entry : digest.entrySet()) {
+            bytes += entry.getKey().length() + 4 + Long.toString(entry.getValue()).length();
+        }
+        return bytes;
+    }
+
+    // isprakja GOSSIP_PULL_RES so realnite NodeInfo updates kon baraniot node
+    // zapisite se enkodiraat ednas po (id, heartbeat) i se sostavuvaat vo gotov json,
+    // pa isti baranja od povekje peer-ovi ne ja serijaliziraat istata sodrzina odnovo
+    private void sendPullResponse(String targetId, Map<String, NodeInfo> updates) {
+        try {
+            StringBuilder json = new StringBuilder(64 + updates.size() * 128);
+            json.append("{\"senderId\":").append(mapper.writeValueAsString(selfId))
+                    .append(",\"type\":\"").append(MSG_TYPE_GOSSIP_PULL_RES)
+                    .append("\",\"updates\":{");
+
+            boolean first = true;
+            for (Map.Entry<String, NodeInfo> entry : updates.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append(mapper.writeValueAsString(entry.getKey())).append(':').append(encodeEntry(entry.getValue()));
+            }
+            json.append("},\"digest\":{}}");
+
+            // golem odgovor ne sobira vo eden datagram: razmeni ja celata sostojba preku tcp
+            if (json.length() > MAX_UDP_PAYLOAD) {
+                requestFullSync(targetId);
+                return;
+            }
+            sendUdpMessage(targetId, json.toString());
+
         } catch (Exception e) {
             System.err.println(selfId + ": Error sending PULL_RES: " + e.getMessage());
         }
     }
 
+    // json na NodeInfo za negoviot momentalen heartbeat, od kesot ako vekje e enkodiran
+    private String encodeEntry(NodeInfo info) throws Exception {
+        long heartbeat = info.getHeartbeat();
+        EncodedEntry cached = encodedEntries.get(info.getId());
+        if (cached != null && cached.heartbeat == heartbeat) {
+            encodedEntryHits.increment();
+            return cached.json;
+        }
+
+        String json = mapper.writeValueAsString(info);
+        encodedEntries.put(info.getId(), new EncodedEntry(heartbeat, json));
+        return json;
+    }
+
     // spoi remote membership mapa vo lokalnata membershipList koristejki heartbeat za verzioniranje
     private void mergeMembershipList(Map<String, NodeInfo> remoteUpdates) {
         remoteUpdates.forEach((id, remoteInfo) -> {
@@ -281,16 +686,23 @@ public class UDPGossipService {
 
             // ako prvi pat go gledame ovoj node -> dodaj go
             if (localInfo == null) {
-                membershipList.put(id, remoteInfo);
-                System.out.println(selfId + ": New node discovered: " + id);
+                // tcp sync i udp handlerot mozat da mergiraat istovremeno
+                if (membershipList.putIfAbsent(id, remoteInfo) != null) {
+                    return;
+                }
+                membershipVersion.incrementAndGet();
+                journal.record(selfId, MembershipEvent.NODE_DISCOVERED, id, remoteInfo.getState(), null);
             }
             // ako remote ima pogolem heartbeat -> prifati go kako ponova informaciona verzija
-            else if (remoteInfo.getHeartbeat() > localInfo.getHeartbeat()) {
-                localInfo.setHeartbeat(remoteInfo.getHeartbeat());
-                localInfo.setState(remoteInfo.getState());
-                localInfo.setTimestamp(System.currentTimeMillis());
-                System.out.println(selfId + ": Updated node: " + id +
-                        ", State: " + localInfo.getState());
+            else {
+                NodeState previous = localInfo.getState();
+                // sekoj heartbeat ne e nastan: vo zurnalot odat samo promenite na sostojba,
+                // inaku obicnite heartbeat-i gi istisnuvaat (sampling, rate limit) SUSPECT/DEAD nastanite
+                if (localInfo.mergeIfNewer(remoteInfo) && remoteInfo.getState() != previous) {
+                    membershipVersion.incrementAndGet();
+                    journal.record(selfId, MembershipEvent.NODE_UPDATED, id, remoteInfo.getState(),
+                            previous + " -> " + remoteInfo.getState());
+                }
             }
         });
     }
@@ -298,6 +710,8 @@ public class UDPGossipService {
     // lokalno failure detection bazirano na timestamp i timeouts
     private void checkForFailures() {
         long now = System.currentTimeMillis();
+        // istecenite pull baranja za koi nikoj ne prasal povtorno
+        inflightPulls.values().removeIf(deadline -> deadline < now);
         List<NodeInfo> nodes = new ArrayList<>(membershipList.values());
 
         for (NodeInfo node : nodes) {
@@ -313,16 +727,18 @@ public class UDPGossipService {
                 node.setState(NodeState.DEAD);
                 node.incrementHeartbeat();
                 node.setTimestamp(now);
-                System.out.println(selfId + ": Declared DEAD: " + node.getId() +
-                        " after " + diff + " ms");
+                membershipVersion.incrementAndGet();
+                journal.record(selfId, MembershipEvent.NODE_DEAD, node.getId(), NodeState.DEAD,
+                        "after " + diff + " ms");
             }
             // ako node e alive a nema aktivnost do SUSPECT_TIMEOUT_MS -> premesti vo SUSPECT
             else if (node.getState() == NodeState.ALIVE && diff > SUSPECT_TIMEOUT_MS) {
                 node.setState(NodeState.SUSPECT);
                 node.incrementHeartbeat();
                 node.setTimestamp(now);
-                System.out.println(selfId + ": Declared SUSPECT: " + node.getId() +
-                        " after " + diff + " ms");
+                membershipVersion.incrementAndGet();
+                journal.record(selfId, MembershipEvent.NODE_SUSPECT, node.getId(), NodeState.SUSPECT,
+                        "after " + diff + " ms");
             }
         }
     }
@@ -339,8 +755,14 @@ public class UDPGossipService {
         int port = Integer.parseInt(parts[1]);
         byte[] buffer = jsonPayload.getBytes();
 
-        DatagramPacket packet = new DatagramPacket(buffer, buffer.length, address, port);
-        socket.send(packet);
+        if (isSameZone(targetId)) {
+            inZoneBytes.add(buffer.length);
+        } else {
+            crossZoneBytes.add(buffer.length);
+        }
+
+        // kanalot e non-blocking; ako kernel baferot e poln paketot se gubi kako i sekoj udp paket
+        channel.send(ByteBuffer.wrap(buffer), new InetSocketAddress(address, port));
     }
 
     // daje pristap do lokalnata membership mapa
@@ -348,18 +770,71 @@ public class UDPGossipService {
         return membershipList;
     }
 
+    // kluster-vo cpu/memory agregati (prosek, suma, min, max) procenati preku push-sum
+    public Map<String, MetricAggregate> getLoadAggregates() {
+        return loadAggregator.getAggregates();
+    }
+
+    // broj na jazli so sostojba ALIVE vo lokalnata membership lista
+    private int countAliveNodes() {
+        return (int) membershipList.values().stream()
+                .filter(n -> n.getState() == NodeState.ALIVE)
+                .count();
+    }
+
     // vrakja id na ovoj node
     public String getSelfId() {
         return selfId;
     }
 
-    // gasi scheduler i udp socketot
+    // gi otkazuva periodichnite taskovi i go zatvora udp kanalot (runtime-ot ostanuva za drugite jazli)
     public void shutdown() {
-        scheduler.shutdownNow();
-        socket.close();
+        tasks.forEach(task -> task.cancel(false));
+        try {
+            channel.close();
+            syncServer.close();
+        } catch (IOException ignored) {
+            // kanalot vekje e zatvoren
+        }
         System.out.println(selfId + ": Gossip Service shut down.");
     }
 
+    // ja objavuva adresata na rest api-to na ovoj jazel; se siri so sledniot heartbeat
+    public void setApiAddress(String apiAddress) {
+        membershipList.get(selfId).setApiAddress(apiAddress);
+    }
+
+    // ja postavuva zonata i rackot na ovoj jazel; se sirat so sledniot heartbeat
+    public void setTopology(String zone, String rack) {
+        NodeInfo self = membershipList.get(selfId);
+        self.setZone(zone);
+        self.setRack(rack);
+    }
+
+    // kolkav del od gossip rundite odat kon peer vo druga zona (0..1)
+    public void setCrossZoneFraction(double fraction) {
+        peerSelector.setCrossZoneFraction(fraction);
+    }
+
+    // isprateni udp bajti podeleni na vo-zona i megju-zoni, plus kompresirani tcp sync bajti (vkupno i po zona)
+    public Map<String, Long> getTrafficStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("inZoneBytes", inZoneBytes.sum());
+        stats.put("crossZoneBytes", crossZoneBytes.sum());
+        stats.put("tcpSyncBytesSent", fullStateSync.getBytesSent());
+        stats.put("tcpSyncBytesReceived", fullStateSync.getBytesReceived());
+        stats.put("tcpSyncInZoneBytes", syncInZoneBytes.sum());
+        stats.put("tcpSyncCrossZoneBytes", syncCrossZoneBytes.sum());
+        stats.put("pullRequestsSent", pullRequestsSent.sum());
+        stats.put("pullIdsSuppressed", pullIdsSuppressed.sum());
+        stats.put("pullRequestsThrottled", pullRequestsThrottled.sum());
+        stats.put("pullResponseCacheHits", encodedEntryHits.sum());
+        stats.put("fallbackSyncsStarted", fallbackSyncsStarted.sum());
+        stats.put("fallbackSyncsSuppressed", fallbackSyncsSuppressed.sum());
+        stats.put("fallbackSyncsThrottled", fallbackSyncsThrottled.sum());
+        return stats;
+    }
+
     // pomosen metod za test: na sila menuva sostojba na nekoj node lokalno
     public void forceUpdateLocalState(String targetId, NodeState newState) {
         NodeInfo info = membershipList.get(targetId);
@@ -367,8 +842,32 @@ public class UDPGossipService {
             info.setState(newState);
             info.incrementHeartbeat();
             info.setTimestamp(System.currentTimeMillis());
-            System.out.println(selfId + ": SIMULATION: Forcing local state of " + targetId +
-                    " to " + newState);
+            membershipVersion.incrementAndGet();
+            journal.record(selfId, MembershipEvent.STATE_FORCED, targetId, newState, "simulation");
+        }
+    }
+
+    // Merkle drvo zaedno so verzijata na clenstvoto od koja e izgradeno
+    private static final class CachedTree {
+        private final long version;
+        private final long builtAt;
+        private final MembershipMerkleTree tree;
+
+        private CachedTree(long version, long builtAt, MembershipMerkleTree tree) {
+            this.version = version;
+            this.builtAt = builtAt;
+            this.tree = tree;
+        }
+    }
+
+    // enkodiran json na eden zapis zaedno so heartbeat-ot za koj vazi
+    private static final class EncodedEntry {
+        private final long heartbeat;
+        private final String json;
+
+        private EncodedEntry(long heartbeat, String json) {
+            this.heartbeat = heartbeat;
+            this.json = json;
         }
     }
 }
@@ -5,6 +5,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Predicate;
 
 // klasa za consistent hash ring so virtualni jazli (replici)
 public class ConsistentHashRing<T> {
@@ -28,8 +29,6 @@ public class ConsistentHashRing<T> {
         if (newNodes != null) {
             newNodes.forEach(this::add);
         }
-        System.out.println("[HashRing] Rebuilt. New node count: " +
-                (newNodes != null ? newNodes.size() : 0));
     }
 
     // dodava node vo ringot so numberOfReplicas virtualni pozicii
@@ -63,8 +62,35 @@ public class ConsistentHashRing<T> {
         return ring.get(nodeHash);
     }
 
+    // kako getNode, no go preskoknuva node-ot ako ne go ispolnuva uslovot i prodolzuva po prstenot;
+    // null ako nitu eden node ne go ispolnuva
+    public synchronized T getNode(Object key, Predicate<T> eligible) {
+        if (ring.isEmpty() || key == null) {
+            return null;
+        }
+
+        long hash = hash(key.toString());
+        for (T node : ring.tailMap(hash).values()) {
+            if (eligible.test(node)) {
+                return node;
+            }
+        }
+        for (T node : ring.headMap(hash).values()) {
+            if (eligible.test(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // kopija od site pozicii na prstenot (hash -> node), za RingSnapshot
+    public synchronized SortedMap<Long, T> points() {
+        return new TreeMap<>(ring);
+    }
+
     // md5 baziran hash sto vrakja nenegativen long za pozicija na prstenot
-    private long hash(String key) {
+    // (package-private za RingSnapshot da gi mapira klucevite identicno)
+    static long hash(String key) {
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
             byte[] bytes = md.digest(key.getBytes());
@@ -0,0 +1,182 @@
+package hashing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+
+// nepromenliva kopija od hash ringot so inkarnacija i epoha, vo kompakten binaren format za klientite
+// klucevite se mapiraat so istiot hash kako ConsistentHashRing, pa klientot dobiva ist odgovor kako /cluster/find
+public final class RingSnapshot {
+
+    // "RING" + verzija na formatot
+    private static final int MAGIC = 0x52494e47;
+    private static final byte VERSION = 2;
+
+    // inkarnacija na serverskiot process; epohata e monotona samo vo ramki na edna inkarnacija
+    private final long incarnation;
+    private final long epoch;
+    // site jazli na ringot i nivnite http adresi (null ako nemaat)
+    private final String[] nodes;
+    private final String[] apiAddresses;
+    // podredeni pozicii na prstenot i indeks na jazelot sto ja poseduva sekoja pozicija
+    private final long[] positions;
+    private final int[] owners;
+
+    private RingSnapshot(long incarnation, long epoch, String[] nodes, String[] apiAddresses,
+                         long[] positions, int[] owners) {
+        this.incarnation = incarnation;
+        this.epoch = epoch;
+        this.nodes = nodes;
+        this.apiAddresses = apiAddresses;
+        this.positions = positions;
+        this.owners = owners;
+    }
+
+    // pravi snapshot od daden ring; apiAddress dava http adresa za node id (moze null)
+    public static RingSnapshot of(ConsistentHashRing<String> ring, long incarnation, long epoch,
+                                  Function<String, String> apiAddress) {
+        SortedMap<Long, String> points = ring.points();
+
+        Map<String, Integer> index = new HashMap<>();
+        long[] positions = new long[points.size()];
+        int[] owners = new int[points.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : points.entrySet()) {
+            positions[i] = point.getKey();
+            owners[i] = index.computeIfAbsent(point.getValue(), n -> index.size());
+            i++;
+        }
+
+        String[] nodes = new String[index.size()];
+        index.forEach((node, idx) -> nodes[idx] = node);
+        String[] apiAddresses = new String[nodes.length];
+        for (int n = 0; n < nodes.length; n++) {
+            apiAddresses[n] = apiAddress.apply(nodes[n]);
+        }
+        return new RingSnapshot(incarnation, epoch, nodes, apiAddresses, positions, owners);
+    }
+
+    // istata logika kako ConsistentHashRing.getNode: prva pozicija >= hash, so wrap okolu prstenot
+    public String getNode(String key) {
+        if (positions.length == 0 || key == null) {
+            return null;
+        }
+        int i = Arrays.binarySearch(positions, ConsistentHashRing.hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        if (i == positions.length) {
+            i = 0;
+        }
+        return nodes[owners[i]];
+    }
+
+    // istata logika kako GossipManager.findResponsibleApiNode: prviot jazel od pozicijata na key-ot
+    // natamu po prstenot sto objavil http adresa (null ako nitu eden nema)
+    public String getApiNode(String key) {
+        if (positions.length == 0 || key == null) {
+            return null;
+        }
+        int start = Arrays.binarySearch(positions, ConsistentHashRing.hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int n = 0; n < positions.length; n++) {
+            int owner = owners[(start + n) % positions.length];
+            if (apiAddresses[owner] != null) {
+                return nodes[owner];
+            }
+        }
+        return null;
+    }
+
+    // http adresa na jazel od snapshot-ot, ako ja objavil
+    public String getApiAddress(String nodeId) {
+        for (int n = 0; n < nodes.length; n++) {
+            if (nodes[n].equals(nodeId)) {
+                return apiAddresses[n];
+            }
+        }
+        return null;
+    }
+
+    public long getIncarnation() {
+        return incarnation;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // dali dvata snapshot-a se za ista verzija na ringot (ista inkarnacija i epoha)
+    public boolean sameVersion(RingSnapshot other) {
+        return other != null && incarnation == other.incarnation && epoch == other.epoch;
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    // binaren format: magic, verzija, inkarnacija, epoha, jazli (id + adresa), pa pozicii kako 32-bitni vrednosti + indeks
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + positions.length * 6);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(incarnation);
+            out.writeLong(epoch);
+
+            out.writeInt(nodes.length);
+            for (int n = 0; n < nodes.length; n++) {
+                out.writeUTF(nodes[n]);
+                out.writeUTF(apiAddresses[n] != null ? apiAddresses[n] : "");
+            }
+
+            out.writeInt(positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                // hash-ot e nenegativna 32-bitna vrednost, pa sobira vo int
+                out.writeInt((int) positions[i]);
+                out.writeShort(owners[i]);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode ring snapshot", e);
+        }
+    }
+
+    public static RingSnapshot decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Not a ring snapshot");
+        }
+        long incarnation = in.readLong();
+        long epoch = in.readLong();
+
+        int nodeCount = in.readInt();
+        String[] nodes = new String[nodeCount];
+        String[] apiAddresses = new String[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            nodes[n] = in.readUTF();
+            String api = in.readUTF();
+            apiAddresses[n] = api.isEmpty() ? null : api;
+        }
+
+        int pointCount = in.readInt();
+        long[] positions = new long[pointCount];
+        int[] owners = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            positions[i] = in.readInt() & 0xffffffffL;
+            owners[i] = in.readUnsignedShort();
+        }
+        return new RingSnapshot(incarnation, epoch, nodes, apiAddresses, positions, owners);
+    }
+}
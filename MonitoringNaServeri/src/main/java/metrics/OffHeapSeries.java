@@ -0,0 +1,65 @@
+package metrics;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// ring bafer za edna serija, cuvan off-heap (direct ByteBuffer) za da nema GC churn pri golem ingest
+// sekoj sample zafaka SAMPLE_BYTES: long timestamp + double value; koga baferot ke se napolni se prepisuvaat najstarite
+public class OffHeapSeries {
+
+    static final int SAMPLE_BYTES = Long.BYTES + Double.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+
+    // pozicija (vo sample-i) kade ke se zapise sledniot sample
+    private int head;
+    // kolku sample-i momentalno se vo baferot
+    private int size;
+
+    public OffHeapSeries(int capacity) {
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * SAMPLE_BYTES);
+    }
+
+    // dodava sample; ako baferot e poln go prepisuva najstariot
+    public synchronized void append(long timestamp, double value) {
+        int offset = head * SAMPLE_BYTES;
+        buffer.putLong(offset, timestamp);
+        buffer.putDouble(offset + Long.BYTES, value);
+
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    // gi vrakja sample-ite so timestamp vo [from, to], od najstar kon najnov
+    public synchronized List<Sample> range(long from, long to) {
+        List<Sample> result = new ArrayList<>();
+        int start = (head - size + capacity) % capacity;
+
+        for (int i = 0; i < size; i++) {
+            int offset = ((start + i) % capacity) * SAMPLE_BYTES;
+            long timestamp = buffer.getLong(offset);
+            if (timestamp >= from && timestamp <= to) {
+                result.add(new Sample(timestamp, buffer.getDouble(offset + Long.BYTES)));
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // kolku off-heap bajti zafaka serijata
+    public long allocatedBytes() {
+        return (long) capacity * SAMPLE_BYTES;
+    }
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+// eden sample od time-series: vreme (ms) i vrednost
+public class Sample {
+
+    private final long timestamp;
+    private final double value;
+
+    public Sample(long timestamp, double value) {
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,95 @@
+package metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// lokalen in-memory time-series store za klucevite (npr. cpu:8000) za koi ovoj jazel e odgovoren spored hash ringot
+public class TimeSeriesStore {
+
+    // default kolku sample-i se cuvaat po serija (4096 * 16 B = 64 KB off-heap)
+    public static final int DEFAULT_SERIES_CAPACITY = 4096;
+    // default najmnogu serii po jazel (4096 * 64 KB = 256 MB off-heap), za klucevi od klientite da ne ja iscrpat memorijata
+    public static final int DEFAULT_MAX_SERIES = 4096;
+
+    // key -> off-heap ring bafer
+    private final ConcurrentMap<String, OffHeapSeries> series = new ConcurrentHashMap<>();
+    private final int seriesCapacity;
+    private final int maxSeries;
+    // broj na kreirani serii, se rezervira pred alokacija za limitot da vazi i pri paralelen ingest
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    // vkupno primeni sample-i (ne samo zadrzanite)
+    private final LongAdder ingested = new LongAdder();
+    // sample-i odbieni bidejki bi kreirale serija preku limitot
+    private final LongAdder rejected = new LongAdder();
+
+    public TimeSeriesStore() {
+        this(DEFAULT_SERIES_CAPACITY, DEFAULT_MAX_SERIES);
+    }
+
+    public TimeSeriesStore(int seriesCapacity, int maxSeries) {
+        this.seriesCapacity = seriesCapacity;
+        this.maxSeries = maxSeries;
+    }
+
+    // zapisuva sample za daden key, serijata se kreira pri prviot sample;
+    // vrakja false ako key-ot e nov, a store-ot vekje ima maxSeries serii
+    public boolean ingest(String key, long timestamp, double value) {
+        OffHeapSeries s = series.computeIfAbsent(key, k -> {
+            if (seriesCount.incrementAndGet() > maxSeries) {
+                seriesCount.decrementAndGet();
+                return null;
+            }
+            try {
+                return new OffHeapSeries(seriesCapacity);
+            } catch (OutOfMemoryError e) {
+                // allocateDirect bez slobodna direktna memorija: serijata ne nastanala, slotot se vrakja
+                seriesCount.decrementAndGet();
+                throw e;
+            }
+        });
+        if (s == null) {
+            rejected.increment();
+            return false;
+        }
+        s.append(timestamp, value);
+        ingested.increment();
+        return true;
+    }
+
+    // sample-i za daden key vo opseg [from, to]
+    public List<Sample> query(String key, long from, long to) {
+        OffHeapSeries s = series.get(key);
+        return s == null ? Collections.emptyList() : s.range(from, to);
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(series.keySet());
+    }
+
+    public long getIngestedCount() {
+        return ingested.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getMaxSeries() {
+        return maxSeries;
+    }
+
+    // broj na sample-i sto momentalno se zadrzani vo site serii
+    public long getRetainedCount() {
+        return series.values().stream().mapToLong(OffHeapSeries::size).sum();
+    }
+
+    // off-heap memorija zafatena od site serii
+    public long getAllocatedBytes() {
+        return series.values().stream().mapToLong(OffHeapSeries::allocatedBytes).sum();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import gossip.GossipManager;
+import gossip.GossipRuntime;
+import gossip.NodeInfo;
+import gossip.NodeState;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+// startuva mnogu gossip jazli vo eden JVM nad eden zaednicki GossipRuntime
+// i meri kolku nitki i heap memorija trosi sekoj jazel
+public class EmbeddedClusterRunner {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int basePort = args.length > 1 ? Integer.parseInt(args[1]) : 9000;
+        int settleSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        String host = "127.0.0.1";
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        System.gc();
+        int threadsBefore = threads.getThreadCount();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        GossipRuntime runtime = GossipRuntime.shared();
+        List<GossipManager> managers = new ArrayList<>(nodeCount);
+
+        // prviot jazel e seed za site ostanati
+        String seed = host + ":" + basePort;
+        for (int i = 0; i < nodeCount; i++) {
+            int port = basePort + i;
+            String[] seeds = i == 0 ? new String[0] : new String[]{seed};
+            managers.add(new GossipManager(runtime, host, port, seeds));
+        }
+
+        System.out.println("Started " + nodeCount + " nodes, waiting " + settleSeconds + "s for gossip to settle...");
+        Thread.sleep(settleSeconds * 1000L);
+
+        System.gc();
+        int threadsAfter = threads.getThreadCount();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        // kolku jazli vo prosek se poznati (vo bilo koja sostojba)
+        double avgKnown = managers.stream()
+                .mapToInt(m -> m.getClusterStatus().size())
+                .average()
+                .orElse(0);
+
+        // kolku jazli vo prosek se gledaat kako ALIVE
+        double avgAlive = managers.stream()
+                .mapToLong(m -> m.getClusterStatus().values().stream()
+                        .map(NodeInfo::getState)
+                        .filter(s -> s == NodeState.ALIVE)
+                        .count())
+                .average()
+                .orElse(0);
+
+        System.out.println("-----------------------------------------------------");
+        System.out.println("Nodes:                " + nodeCount);
+        System.out.println("Threads (total):      " + threadsBefore + " -> " + threadsAfter);
+        System.out.printf("Threads per node:     %.3f%n", (threadsAfter - threadsBefore) / (double) nodeCount);
+        System.out.printf("Heap per node:        %.1f KB%n", (heapAfter - heapBefore) / 1024.0 / nodeCount);
+        System.out.printf("Avg known view size:  %.1f / %d%n", avgKnown, nodeCount);
+        System.out.printf("Avg ALIVE view size:  %.1f / %d%n", avgAlive, nodeCount);
+        System.out.println("-----------------------------------------------------");
+
+        managers.forEach(GossipManager::shutdown);
+        runtime.shutdown();
+    }
+}
@@ -28,6 +28,8 @@ public class NodeRunner {
 
         // startuvanje na GossipManager
         GossipManager manager = new GossipManager(host, port, seedNodes.toArray(new String[0]));
+        // zona/rack se zadavaat so -Dgossip.zone=... -Dgossip.rack=...
+        manager.setTopology(System.getProperty("gossip.zone"), System.getProperty("gossip.rack"));
 
         System.out.println("Node " + manager.getLocalNodeId() + " is started and active.");
         System.out.println("Seed nodes: " + seedNodes);
@@ -0,0 +1,68 @@
+package org.example;
+
+import metrics.TimeSeriesStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// meri ingest brzina (samples/sec) i bajti po sample za TimeSeriesStore
+public class TimeSeriesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int samplesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int threadCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        TimeSeriesStore store = new TimeSeriesStore();
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "cpu:" + (8000 + i);
+        }
+
+        // zagrevanje za JIT
+        runIngest(store, keys, 200_000, threadCount);
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        long ingestedBefore = store.getIngestedCount();
+
+        long start = System.nanoTime();
+        runIngest(store, keys, samplesPerThread, threadCount);
+        long elapsed = System.nanoTime() - start;
+
+        long ingested = store.getIngestedCount() - ingestedBefore;
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+
+        System.out.println("-----------------------------------------------------");
+        System.out.println("Series:               " + keyCount);
+        System.out.println("Threads:              " + threadCount);
+        System.out.println("Samples ingested:     " + ingested);
+        System.out.printf("Samples/sec:          %.0f%n", ingested / (elapsed / 1e9));
+        System.out.println("Samples retained:     " + store.getRetainedCount());
+        System.out.printf("Off-heap bytes/sample: %.1f%n", store.getAllocatedBytes() / (double) store.getRetainedCount());
+        System.out.printf("Heap delta:           %.1f KB%n", (heapAfter - heapBefore) / 1024.0);
+        System.out.println("-----------------------------------------------------");
+    }
+
+    private static void runIngest(TimeSeriesStore store, String[] keys, int samples, int threadCount)
+            throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ts = System.currentTimeMillis();
+                for (int i = 0; i < samples; i++) {
+                    store.ingest(keys[random.nextInt(keys.length)], ts + i, random.nextDouble());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example;
+
+import gossip.NodeInfo;
+import gossip.NodeState;
+import gossip.TopologyAwarePeerSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+// simulacija vo rundi (bez mreza): kolku rundi trae diseminacija na eden update
+// i kolkav del od porakite odat megju zoni, za razlicni vrednosti na crossZoneFraction.
+// koristi go istiot TopologyAwarePeerSelector kako UDPGossipService.
+public class ZoneGossipSimulator {
+
+    private static final int MAX_ROUNDS = 1_000;
+
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int zoneCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int trials = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        double[] fractions = {0.01, 0.05, 0.1, 0.2, 0.5, 1.0};
+
+        List<NodeInfo> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            NodeInfo node = new NodeInfo("node-" + i, 0, NodeState.ALIVE, 0);
+            node.setZone("zone-" + (i % zoneCount));
+            nodes.add(node);
+        }
+
+        // kandidati za sekoj jazel (site ostanati), presmetani ednas
+        List<List<NodeInfo>> candidates = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            List<NodeInfo> others = new ArrayList<>(nodes);
+            others.remove(i);
+            candidates.add(others);
+        }
+
+        System.out.println("Nodes: " + nodeCount + ", zones: " + zoneCount + ", trials: " + trials);
+        System.out.println("crossZoneFraction | avg rounds | max rounds | cross-zone msgs");
+        for (double fraction : fractions) {
+            Random random = new Random(42);
+            TopologyAwarePeerSelector selector = new TopologyAwarePeerSelector(random, fraction);
+
+            long totalRounds = 0;
+            int maxRounds = 0;
+            long messages = 0;
+            long crossZone = 0;
+            boolean completed = true;
+
+            for (int t = 0; t < trials; t++) {
+                boolean[] informed = new boolean[nodeCount];
+                informed[random.nextInt(nodeCount)] = true;
+                int informedCount = 1;
+                int rounds = 0;
+
+                while (informedCount < nodeCount && rounds < MAX_ROUNDS) {
+                    rounds++;
+                    boolean[] next = informed.clone();
+                    // sekoj jazel vo sekoja runda prakja push kon eden peer
+                    for (int i = 0; i < nodeCount; i++) {
+                        NodeInfo self = nodes.get(i);
+                        Optional<NodeInfo> peer = selector.select(candidates.get(i), self.getZone());
+                        if (peer.isEmpty()) {
+                            continue;
+                        }
+                        messages++;
+                        if (!peer.get().getZone().equals(self.getZone())) {
+                            crossZone++;
+                        }
+                        int target = Integer.parseInt(peer.get().getId().substring("node-".length()));
+                        if (informed[i] && !next[target]) {
+                            next[target] = true;
+                            informedCount++;
+                        }
+                    }
+                    informed = next;
+                }
+
+                if (informedCount < nodeCount) {
+                    completed = false;
+                }
+                totalRounds += rounds;
+                maxRounds = Math.max(maxRounds, rounds);
+            }
+
+            System.out.printf("%17.2f | %10s | %10s | %14.1f%%%n",
+                    fraction,
+                    completed ? String.format("%.1f", totalRounds / (double) trials) : "never",
+                    completed ? String.valueOf(maxRounds) : "-",
+                    100.0 * crossZone / Math.max(1, messages));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package gossip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        EventJournal journal = new EventJournal(10, null, 1, 0);
+        record(journal, 40);
+
+        // 16 slotovi: se cuvaat samo poslednite 16 nastani
+        List<MembershipEvent> events = journal.since(0);
+        assertEquals(16, events.size());
+        assertEquals(25, events.get(0).getSequence());
+        assertEquals(40, events.get(15).getSequence());
+    }
+
+    @Test
+    void sinceReturnsOnlyNewerEventsAfterWraparound() {
+        EventJournal journal = new EventJournal(8, null, 1, 0);
+        record(journal, 20);
+
+        assertEquals(List.of(19L, 20L), sequences(journal.since(18)));
+        assertTrue(journal.since(20).isEmpty());
+        assertEquals(20, journal.latestSequence());
+    }
+
+    @Test
+    void drainDeliversEveryEventOnceInOrder() {
+        CapturingSink sink = new CapturingSink();
+        EventJournal journal = new EventJournal(64, sink, 1, 1_000);
+
+        record(journal, 10);
+        journal.drain();
+        record(journal, 5);
+        journal.drain();
+        journal.drain();
+
+        assertEquals(15, sink.events.size());
+        for (int i = 0; i < sink.events.size(); i++) {
+            assertEquals(i + 1, sink.events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void drainCountsOverwrittenEventsAsSuppressed() {
+        CapturingSink sink = new CapturingSink();
+        EventJournal journal = new EventJournal(8, sink, 1, 1_000);
+
+        record(journal, 20);
+        journal.drain();
+
+        // prvite 12 bea prepisani pred drain-ot; ostanatite 8 stignuvaat po redosled
+        assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), sequences(sink.events));
+        record(journal, 1);
+        journal.drain();
+        assertEquals(21, sink.events.get(sink.events.size() - 1).getSequence());
+    }
+
+    @Test
+    void sampleEveryAndRateLimitThinTheStream() {
+        CapturingSink sink = new CapturingSink();
+        EventJournal journal = new EventJournal(64, sink, 1, 1_000);
+        journal.setSampleEvery(4);
+        journal.setMaxPerSecond(3);
+
+        record(journal, 32);
+        journal.drain();
+
+        // sampling zadrzuva 4, 8, 12, ...; rate limit-ot gi propusta samo prvite 3 vo prozorecot
+        assertEquals(List.of(4L, 8L, 12L), sequences(sink.events));
+    }
+
+    private static void record(EventJournal journal, int count) {
+        for (int i = 0; i < count; i++) {
+            journal.record("self", MembershipEvent.NODE_UPDATED, "node-" + i, NodeState.ALIVE, null);
+        }
+    }
+
+    private static List<Long> sequences(List<MembershipEvent> events) {
+        List<Long> sequences = new ArrayList<>();
+        events.forEach(e -> sequences.add(e.getSequence()));
+        return sequences;
+    }
+
+    private static final class CapturingSink implements EventSink {
+        private final List<MembershipEvent> events = new ArrayList<>();
+
+        @Override
+        public void accept(MembershipEvent event) {
+            events.add(event);
+        }
+    }
+}
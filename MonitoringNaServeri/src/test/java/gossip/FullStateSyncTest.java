@@ -0,0 +1,103 @@
+package gossip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// tcp full-state sync: golem view (20k jazli) se prenesuva celosno, a preogolem frame se odbiva
+class FullStateSyncTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int MEMBER_COUNT = 20_000;
+
+    private GossipRuntime runtime;
+    private UDPGossipService source;
+    private UDPGossipService target;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        runtime = GossipRuntime.dedicated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (source != null) {
+            source.shutdown();
+        }
+        if (target != null) {
+            target.shutdown();
+        }
+        runtime.shutdown();
+    }
+
+    @Test
+    void syncsTwentyThousandMembers() throws IOException {
+        source = new UDPGossipService(runtime, new EventJournal(1024, null, 1, 0), HOST, freePort(), List.of());
+        target = new UDPGossipService(runtime, new EventJournal(1024, null, 1, 0), HOST, freePort(), List.of());
+        source.start();
+
+        // sinteticki clenovi vo view-to na source (adresi na koi nikoj ne slusa)
+        long now = System.currentTimeMillis();
+        Map<String, NodeInfo> members = source.getMembershipList();
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            String id = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff) + ":7000";
+            members.put(id, new NodeInfo(id, i, NodeState.ALIVE, now));
+        }
+
+        assertTrue(target.fullSyncWith(source.getSelfId()));
+
+        Map<String, NodeInfo> synced = target.getMembershipList();
+        long matching = members.values().stream()
+                .filter(m -> synced.containsKey(m.getId())
+                        && synced.get(m.getId()).getHeartbeat() >= m.getHeartbeat())
+                .count();
+        assertEquals(members.size(), matching);
+
+        Map<String, Long> traffic = target.getTrafficStats();
+        assertTrue(traffic.get("tcpSyncBytesSent") > 0);
+        assertTrue(traffic.get("tcpSyncBytesReceived") > 0);
+    }
+
+    @Test
+    void rejectsOversizedFrameWithoutReadingIt() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            // "server" sto odgovara samo so deklarirana dolzina od 1 GB
+            CompletableFuture<Void> peer = CompletableFuture.runAsync(() -> {
+                try (Socket socket = server.accept()) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    out.writeInt(1 << 30);
+                    out.flush();
+                    socket.getInputStream().readAllBytes();
+                } catch (IOException ignored) {
+                }
+            });
+
+            FullStateSync sync = new FullStateSync(new ObjectMapper());
+            IOException e = assertThrows(IOException.class, () -> sync.exchange(HOST + ":" + server.getLocalPort(),
+                    new GossipMessage("test", "FULL_SYNC", Map.of(), Map.of()), new LongAdder()));
+            assertTrue(e.getMessage().contains("frame length"), e.getMessage());
+            peer.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package gossip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LoadAggregatorTest {
+
+    private static final int NODES = 64;
+    private static final int ROUNDS = 40;
+
+    @Test
+    void pushSumConvergesToClusterAverage() {
+        List<LoadAggregator> nodes = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < NODES; i++) {
+            double cpu = i / (double) (NODES - 1);
+            total += cpu;
+            nodes.add(new LoadAggregator(() -> Map.of(LoadAggregator.METRIC_CPU, cpu), () -> NODES));
+        }
+        double average = total / NODES;
+
+        // sekoja runda sekoj jazel prakja polovina od masata na sluchaen peer, kako vo gossip rundata
+        Random random = new Random(42);
+        for (int round = 0; round < ROUNDS; round++) {
+            for (LoadAggregator node : nodes) {
+                AggregateShare share = node.prepareShare();
+                nodes.get(random.nextInt(NODES)).merge(share);
+            }
+        }
+
+        long epoch = nodes.get(0).getAggregates().get(LoadAggregator.METRIC_CPU).getEpoch();
+        for (LoadAggregator node : nodes) {
+            MetricAggregate cpu = node.getAggregates().get(LoadAggregator.METRIC_CPU);
+            // epohata (60 s) se smenila za vreme na testot: masata e resetirana, rezultatot ne e merodaven
+            assumeTrue(cpu.getEpoch() == epoch);
+
+            assertEquals(average, cpu.getAverage(), 1e-3);
+            assertEquals(average * NODES, cpu.getSum(), 1e-1);
+            assertEquals(0.0, cpu.getMin());
+            assertEquals(1.0, cpu.getMax());
+            assertEquals(NODES, cpu.getNodes());
+        }
+    }
+
+    @Test
+    void massFromAnOlderEpochIsIgnored() {
+        LoadAggregator node = new LoadAggregator(() -> Map.of(LoadAggregator.METRIC_CPU, 0.5), () -> 1);
+        long epoch = node.getAggregates().get(LoadAggregator.METRIC_CPU).getEpoch();
+
+        node.merge(new AggregateShare(epoch - 1, 10, Map.of(LoadAggregator.METRIC_CPU, 10.0),
+                Map.of(LoadAggregator.METRIC_CPU, 0.0), Map.of(LoadAggregator.METRIC_CPU, 1.0)));
+
+        MetricAggregate cpu = node.getAggregates().get(LoadAggregator.METRIC_CPU);
+        assumeTrue(cpu.getEpoch() == epoch);
+        assertEquals(0.5, cpu.getAverage(), 1e-9);
+        assertEquals(0.5, cpu.getMax(), 1e-9);
+    }
+}
@@ -0,0 +1,90 @@
+package gossip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MembershipMerkleTreeTest {
+
+    @Test
+    void heartbeatsDoNotChangeTheRoot() {
+        List<NodeInfo> left = members(500, 0);
+        List<NodeInfo> right = members(500, 1_000);
+
+        assertEquals(MembershipMerkleTree.build(left).root(), MembershipMerkleTree.build(right).root());
+    }
+
+    @Test
+    void insertionOrderDoesNotChangeTheRoot() {
+        List<NodeInfo> ordered = members(500, 0);
+        List<NodeInfo> reversed = new ArrayList<>(ordered);
+        Collections.reverse(reversed);
+
+        assertEquals(MembershipMerkleTree.build(ordered).root(), MembershipMerkleTree.build(reversed).root());
+    }
+
+    @Test
+    void descentFindsTheLeafOfTheChangedState() {
+        List<NodeInfo> local = members(500, 0);
+        List<NodeInfo> remote = members(500, 0);
+        NodeInfo changed = remote.get(123);
+        remote.set(123, new NodeInfo(changed.getId(), changed.getHeartbeat(), NodeState.SUSPECT, 0));
+
+        MembershipMerkleTree localTree = MembershipMerkleTree.build(local);
+        MembershipMerkleTree remoteTree = MembershipMerkleTree.build(remote);
+        assertNotEquals(localTree.root(), remoteTree.root());
+
+        // ist protokol kako GOSSIP_SUMMARY: se spustame samo niz decata cii hash-ovi se razlikuvaat
+        List<Integer> differing = new ArrayList<>();
+        List<Integer> frontier = List.of(MembershipMerkleTree.ROOT);
+        while (!frontier.isEmpty()) {
+            List<Integer> next = new ArrayList<>();
+            for (int index : frontier) {
+                if (MembershipMerkleTree.isLeaf(index)) {
+                    differing.add(index);
+                    continue;
+                }
+                Map<String, Long> summary = new HashMap<>();
+                remoteTree.putChildren(index, summary);
+                summary.forEach((child, hash) -> {
+                    if (localTree.hash(Integer.parseInt(child)) != hash) {
+                        next.add(Integer.parseInt(child));
+                    }
+                });
+            }
+            frontier = next;
+        }
+
+        assertEquals(List.of(MembershipMerkleTree.leafOf(changed.getId())), differing);
+        Map<String, Long> digest = MembershipMerkleTree.digestOf(remote, Set.copyOf(differing));
+        assertTrue(digest.containsKey(changed.getId()));
+        assertTrue(digest.size() < remote.size());
+    }
+
+    @Test
+    void leavesCoverTheLastLevel() {
+        int leaf = MembershipMerkleTree.leafOf("10.0.0.1:7000");
+
+        assertTrue(MembershipMerkleTree.isLeaf(leaf));
+        assertTrue(MembershipMerkleTree.isValid(leaf));
+        assertTrue(leaf >= MembershipMerkleTree.LEAF_COUNT && leaf < 2 * MembershipMerkleTree.LEAF_COUNT);
+    }
+
+    private static List<NodeInfo> members(int count, long heartbeatOffset) {
+        List<NodeInfo> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = "10.0." + (i >> 8) + "." + (i & 0xff) + ":7000";
+            members.add(new NodeInfo(id, heartbeatOffset + i, NodeState.ALIVE, heartbeatOffset));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,86 @@
+package hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingSnapshotTest {
+
+    private static final int REPLICAS = 100;
+
+    @Test
+    void decodedSnapshotRoutesLikeTheRing() throws IOException {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, nodes(20));
+        RingSnapshot decoded = RingSnapshot.decode(RingSnapshot.of(ring, 7, 3, this::apiAddress).encode());
+
+        assertEquals(7, decoded.getIncarnation());
+        assertEquals(3, decoded.getEpoch());
+        assertEquals(20, decoded.getNodeCount());
+        for (int i = 0; i < 10_000; i++) {
+            String key = "metric-" + i;
+            assertEquals(ring.getNode(key), decoded.getNode(key), key);
+        }
+    }
+
+    @Test
+    void apiNodeMatchesEligibleLookup() throws IOException {
+        // samo parnite jazli objavuvaat http api
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, nodes(20));
+        Set<String> withApi = Set.of("10.0.0.0:7000", "10.0.0.2:7000", "10.0.0.4:7000");
+        RingSnapshot decoded = RingSnapshot.decode(RingSnapshot.of(ring, 1, 1,
+                node -> withApi.contains(node) ? apiAddress(node) : null).encode());
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "metric-" + i;
+            String owner = decoded.getApiNode(key);
+            assertEquals(ring.getNode(key, withApi::contains), owner, key);
+            assertTrue(withApi.contains(owner));
+        }
+        assertNull(decoded.getApiAddress("10.0.0.1:7000"));
+        assertEquals(apiAddress("10.0.0.2:7000"), decoded.getApiAddress("10.0.0.2:7000"));
+    }
+
+    @Test
+    void emptyRingHasNoOwner() throws IOException {
+        RingSnapshot decoded = RingSnapshot.decode(
+                RingSnapshot.of(new ConsistentHashRing<>(REPLICAS, List.of()), 1, 0, node -> null).encode());
+
+        assertNull(decoded.getNode("key"));
+        assertNull(decoded.getApiNode("key"));
+    }
+
+    @Test
+    void versionComparesIncarnationAndEpoch() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(REPLICAS, nodes(3));
+
+        assertTrue(RingSnapshot.of(ring, 5, 2, node -> null).sameVersion(RingSnapshot.of(ring, 5, 2, node -> null)));
+        assertFalse(RingSnapshot.of(ring, 5, 2, node -> null).sameVersion(RingSnapshot.of(ring, 6, 2, node -> null)));
+        assertFalse(RingSnapshot.of(ring, 5, 2, node -> null).sameVersion(RingSnapshot.of(ring, 5, 3, node -> null)));
+    }
+
+    @Test
+    void rejectsForeignData() {
+        assertThrows(IOException.class, () -> RingSnapshot.decode(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    private String apiAddress(String node) {
+        return "127.0.0.1:" + (8000 + Integer.parseInt(node.split("\\.")[3].split(":")[0]));
+    }
+
+    private static List<String> nodes(int count) {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add("10.0.0." + i + ":7000");
+        }
+        return nodes;
+    }
+}